@@ -0,0 +1,70 @@
+package me.remag501.itemsbgs.benchmark;
+
+import me.remag501.itemsbgs.benchmark.simulation.ParallelRegionScheduler;
+import me.remag501.itemsbgs.runnable.BlockMutationQueue;
+import me.remag501.itemsbgs.runnable.FireExpiryWheel;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A molotov fire footprint from start to end: queue the square, place it, then extinguish it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FireFootprintBenchmark {
+
+    private static final int FIRE_DURATION_TICKS = 60;
+
+    // 2 is the molotov's full radius, 1 and 0 are the degraded footprints under load
+    @Param({"0", "1", "2"})
+    public int radius;
+
+    private World world;
+    private BlockMutationQueue mutations;
+    private FireExpiryWheel fireExpiry;
+    private ParallelRegionScheduler scheduler;
+
+    @Setup
+    public void setUp() {
+        StandIns.installServer();
+        world = StandIns.flatWorld();
+        // No time budget: every queued block is applied in the measured call
+        mutations = new BlockMutationQueue(Long.MAX_VALUE / 2);
+        scheduler = new ParallelRegionScheduler(1);
+        fireExpiry = new FireExpiryWheel(Integer.MAX_VALUE, mutations, scheduler);
+        mutations.setFireExpiry(fireExpiry);
+    }
+
+    @Benchmark
+    public int placeAndExtinguish() {
+        mutations.placeFireSquare(world, 8, StandIns.GROUND_Y, 8, radius, FIRE_DURATION_TICKS);
+        mutations.run();
+        int burning = fireExpiry.size();
+        fireExpiry.expireAll();
+        // Drops the cancelled region tasks, so they don't pile up across invocations
+        scheduler.heartbeat();
+        return burning;
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.close();
+    }
+}
@@ -0,0 +1,71 @@
+package me.remag501.itemsbgs.benchmark;
+
+import me.remag501.itemsbgs.item.CustomItem;
+import me.remag501.itemsbgs.item.GrenadeItem;
+import me.remag501.itemsbgs.item.MolotovItem;
+import me.remag501.itemsbgs.item.TearGasItem;
+import me.remag501.itemsbgs.manager.ItemManager;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item identification on every right-click: custom stacks, vanilla stacks and ID lookups.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemLookupBenchmark {
+
+    private ItemManager itemManager;
+    private ItemStack customStack;
+    private ItemStack vanillaStack;
+    private ItemStack vanillaSameMaterialStack;
+
+    @Setup
+    public void setUp() {
+        StandIns.installServer();
+        itemManager = new ItemManager(StandIns.plugin("ItemsBGS"));
+        itemManager.swap(itemManager.buildRegistry(List.of(new MolotovItem(), new GrenadeItem(), new TearGasItem())));
+
+        customStack = itemManager.createItemStack("molotov", 1);
+        vanillaStack = new ItemStack(Material.DIAMOND_SWORD);
+        // Same material as the molotov, so it gets past the material gate and into the meta
+        vanillaSameMaterialStack = new ItemStack(Material.REDSTONE_TORCH);
+    }
+
+    @Benchmark
+    public String customItemIdOfCustomStack() {
+        return itemManager.getCustomItemId(customStack);
+    }
+
+    @Benchmark
+    public String customItemIdOfVanillaStack() {
+        return itemManager.getCustomItemId(vanillaStack);
+    }
+
+    @Benchmark
+    public String customItemIdOfVanillaStackSameMaterial() {
+        return itemManager.getCustomItemId(vanillaSameMaterialStack);
+    }
+
+    @Benchmark
+    public CustomItem itemById() {
+        return itemManager.getItemById("grenade");
+    }
+}
@@ -0,0 +1,67 @@
+package me.remag501.itemsbgs.benchmark;
+
+import me.remag501.itemsbgs.benchmark.simulation.ParallelRegionScheduler;
+import me.remag501.itemsbgs.item.MolotovItem;
+import me.remag501.itemsbgs.item.TearGasItem;
+import me.remag501.itemsbgs.metrics.LatencyHistogram;
+import me.remag501.itemsbgs.runnable.LandingHandler;
+import me.remag501.itemsbgs.runnable.ProjectileEngine;
+import me.remag501.itemsbgs.runnable.TearGasTracker;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One projectile engine tick with molotovs and tear gas canisters in flight.
+ * The projectiles never land, so every tick runs the full landing checks of both trackers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectileEngineBenchmark {
+
+    @Param({"16", "256"})
+    public int projectiles;
+
+    private ProjectileEngine engine;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        StandIns.installServer();
+        World world = StandIns.flatWorld();
+
+        // The molotov's landing rules are private to the item, the tear gas ones are a public class
+        Field handlerField = MolotovItem.class.getDeclaredField("landingHandler");
+        handlerField.setAccessible(true);
+        LandingHandler molotov = (LandingHandler) handlerField.get(new MolotovItem());
+        LandingHandler tearGas = new TearGasTracker(null, TearGasItem.Settings.DEFAULTS);
+
+        // Nothing lands, so the landing scheduler never gets work
+        engine = new ProjectileEngine(null, new ParallelRegionScheduler(1), new LatencyHistogram("tracker tick"));
+        for (int i = 0; i < projectiles; i++) {
+            // Past the activation threshold, before the failsafe, and in the air
+            engine.track(StandIns.flyingItem(world, i * 3, StandIns.GROUND_Y + 10, 0, 30), (i & 1) == 0 ? molotov : tearGas);
+        }
+    }
+
+    @Benchmark
+    public int tick() {
+        engine.run();
+        return engine.size();
+    }
+}
@@ -0,0 +1,287 @@
+package me.remag501.itemsbgs.benchmark;
+
+import me.remag501.itemsbgs.util.BlockKey;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.Vector;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Lightweight stand-ins for the Bukkit types used by the benchmarked code.
+ * Each stand-in is a dynamic proxy that answers the handful of methods the plugin calls
+ * and returns a default value (null, 0, false) for everything else.
+ */
+public final class StandIns {
+
+    // Flat terrain: solid below this height, air from it up
+    public static final int GROUND_Y = 64;
+
+    private static final Logger LOGGER = Logger.getLogger("ItemsBGS-benchmarks");
+
+    private StandIns() {
+    }
+
+    /**
+     * Installs a server stand-in (with an item factory) if none is installed yet.
+     */
+    public static void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+
+        ItemFactory itemFactory = itemFactory();
+        Bukkit.setServer(proxy(Server.class, Map.of(
+                "getLogger", args -> LOGGER,
+                "getName", args -> "StandIn",
+                "getVersion", args -> "1.19.4",
+                "getBukkitVersion", args -> "1.19.4-R0.1-SNAPSHOT",
+                "getItemFactory", args -> itemFactory)));
+    }
+
+    /**
+     * @return An item factory that hands out value-equal item meta stand-ins.
+     */
+    public static ItemFactory itemFactory() {
+        return proxy(ItemFactory.class, Map.of(
+                "getItemMeta", args -> StandInMeta.create((Material) args[0]),
+                "isApplicable", args -> true,
+                "asMetaFor", args -> args[0],
+                "updateMaterial", args -> args[1],
+                "equals", args -> args.length == 2 && Objects.equals(args[0], args[1])));
+    }
+
+    /**
+     * @return A plugin stand-in, enough to create namespaced keys and log.
+     */
+    public static Plugin plugin(String name) {
+        return proxy(Plugin.class, Map.of(
+                "getName", args -> name,
+                "getLogger", args -> LOGGER));
+    }
+
+    /**
+     * @return A world with flat terrain that remembers block changes.
+     */
+    public static World flatWorld() {
+        return new FlatWorld().world;
+    }
+
+    /**
+     * @return An in-flight item entity that never lands.
+     */
+    public static Item flyingItem(World world, double x, double y, double z, int ticksLived) {
+        return proxy(Item.class, Map.of(
+                "isValid", args -> true,
+                "getTicksLived", args -> ticksLived,
+                "getVelocity", args -> new Vector(0.3, -0.2, 0.1),
+                "getLocation", args -> new Location(world, x, y, z),
+                "getWorld", args -> world));
+    }
+
+    /**
+     * Creates a stand-in for an interface.
+     * @param answers Return values by method name (overloads share an answer).
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T proxy(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        InvocationHandler handler = new InvocationHandler() {
+            @Override
+            public Object invoke(Object self, Method method, Object[] args) {
+                Object[] arguments = args == null ? new Object[0] : args;
+                Function<Object[], Object> answer = answers.get(method.getName());
+                if (answer != null) {
+                    return answer.apply(arguments);
+                }
+                return switch (method.getName()) {
+                    case "equals" -> self == arguments[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "toString" -> type.getSimpleName() + "StandIn";
+                    default -> defaultValue(method.getReturnType());
+                };
+            }
+        };
+        return (T) Proxy.newProxyInstance(StandIns.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == char.class) {
+            return (char) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    /**
+     * A world of stone below {@link #GROUND_Y} and air above, plus whatever was placed.
+     */
+    private static final class FlatWorld {
+        private final Map<Long, Material> changes = new HashMap<>();
+        private final UUID uid = UUID.randomUUID();
+        private final World world;
+
+        private FlatWorld() {
+            Map<String, Function<Object[], Object>> answers = new HashMap<>();
+            answers.put("getUID", args -> uid);
+            answers.put("getName", args -> "world");
+            answers.put("getMinHeight", args -> -64);
+            answers.put("getMaxHeight", args -> 320);
+            answers.put("isChunkLoaded", args -> true);
+            answers.put("getChunkAt", args -> chunk((Integer) args[0], (Integer) args[1]));
+            answers.put("getBlockAt", args -> {
+                if (args.length == 1) {
+                    Location location = (Location) args[0];
+                    return block(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+                }
+                return block((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+            });
+            this.world = proxy(World.class, answers);
+        }
+
+        private Chunk chunk(int chunkX, int chunkZ) {
+            return proxy(Chunk.class, Map.of(
+                    "getX", args -> chunkX,
+                    "getZ", args -> chunkZ,
+                    "getWorld", args -> world,
+                    "isLoaded", args -> true,
+                    "getBlock", args -> block((chunkX << 4) + (Integer) args[0], (Integer) args[1], (chunkZ << 4) + (Integer) args[2])));
+        }
+
+        private Block block(int x, int y, int z) {
+            long key = BlockKey.pack(x, y, z);
+            return proxy(Block.class, Map.of(
+                    "getX", args -> x,
+                    "getY", args -> y,
+                    "getZ", args -> z,
+                    "getWorld", args -> world,
+                    "getType", args -> changes.getOrDefault(key, y < GROUND_Y ? Material.STONE : Material.AIR),
+                    "setType", args -> changes.put(key, (Material) args[0])));
+        }
+    }
+
+    /**
+     * Item meta stand-in: display name, lore and a persistent data container, with value equality.
+     * Potions get a PotionMeta, everything else a Damageable (ItemStack reads durability through it).
+     */
+    private static final class StandInMeta implements InvocationHandler {
+        private final Class<? extends ItemMeta> metaType;
+        private String displayName;
+        private List<String> lore;
+        private final Map<NamespacedKey, Object> data = new HashMap<>();
+        private final PersistentDataContainer container = proxy(PersistentDataContainer.class, Map.of(
+                "set", args -> data.put((NamespacedKey) args[0], args[2]),
+                "get", args -> data.get((NamespacedKey) args[0]),
+                "has", args -> data.containsKey((NamespacedKey) args[0]),
+                "remove", args -> data.remove((NamespacedKey) args[0]),
+                "isEmpty", args -> data.isEmpty(),
+                "getKeys", args -> data.keySet()));
+
+        private StandInMeta(Class<? extends ItemMeta> metaType) {
+            this.metaType = metaType;
+        }
+
+        private static ItemMeta create(Material material) {
+            boolean potion = material == Material.POTION || material == Material.SPLASH_POTION || material == Material.LINGERING_POTION;
+            return wrap(new StandInMeta(potion ? PotionMeta.class : Damageable.class));
+        }
+
+        private static ItemMeta wrap(StandInMeta state) {
+            return (ItemMeta) Proxy.newProxyInstance(StandIns.class.getClassLoader(), new Class<?>[]{state.metaType}, state);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object self, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "setDisplayName" -> displayName = (String) args[0];
+                case "getDisplayName" -> {
+                    return displayName;
+                }
+                case "hasDisplayName" -> {
+                    return displayName != null;
+                }
+                case "setLore" -> lore = args[0] == null ? null : new ArrayList<>((List<String>) args[0]);
+                case "getLore" -> {
+                    return lore == null ? null : new ArrayList<>(lore);
+                }
+                case "hasLore" -> {
+                    return lore != null;
+                }
+                case "getPersistentDataContainer" -> {
+                    return container;
+                }
+                case "clone" -> {
+                    StandInMeta copy = new StandInMeta(metaType);
+                    copy.displayName = displayName;
+                    copy.lore = lore == null ? null : new ArrayList<>(lore);
+                    copy.data.putAll(data);
+                    return wrap(copy);
+                }
+                case "equals" -> {
+                    if (args[0] == null || !Proxy.isProxyClass(args[0].getClass())) {
+                        return false;
+                    }
+                    if (!(Proxy.getInvocationHandler(args[0]) instanceof StandInMeta other)) {
+                        return false;
+                    }
+                    return Objects.equals(displayName, other.displayName)
+                            && Objects.equals(lore, other.lore)
+                            && data.equals(other.data);
+                }
+                case "hashCode" -> {
+                    return Objects.hash(displayName, lore, data);
+                }
+                case "toString" -> {
+                    return "ItemMetaStandIn{" + displayName + "}";
+                }
+                default -> {
+                    return defaultValue(method.getReturnType());
+                }
+            }
+            return null;
+        }
+    }
+}
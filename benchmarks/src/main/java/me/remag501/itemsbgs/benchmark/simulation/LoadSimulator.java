@@ -0,0 +1,182 @@
+package me.remag501.itemsbgs.benchmark.simulation;
+
+import me.remag501.itemsbgs.ItemsBGS;
+import me.remag501.itemsbgs.listener.ItemListener;
+import me.remag501.itemsbgs.metrics.MetricsRegistry;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Runs a scripted scenario against the real plugin on a headless, deterministic server
+ * and reports what it cost per simulated tick.
+ *
+ * Usage: java -cp target/benchmarks.jar me.remag501.itemsbgs.benchmark.simulation.LoadSimulator [scenario] [seed]
+ */
+public final class LoadSimulator {
+
+    private static final double PLAYER_SPACING = 6.0;
+    private static final long TICK_BUDGET_NANOS = 50_000_000L;
+    private static final long SLOW_TICK_NANOS = 5_000_000L;
+
+    private LoadSimulator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String scenarioName = args.length > 0 ? args[0] : "molotov-rush";
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+
+        Scenario scenario = Scenario.byName(scenarioName);
+        if (scenario == null) {
+            System.out.println("Unknown scenario '" + scenarioName + "'. Available:");
+            for (Scenario available : Scenario.getScenarios()) {
+                System.out.println("  " + available.getName() + " - " + available.getDescription());
+            }
+            return;
+        }
+
+        SimulatedServer server = SimulatedServer.install();
+        ItemsBGS plugin = server.enablePlugin();
+        ItemListener listener = server.getListener(ItemListener.class);
+        if (listener == null) {
+            throw new IllegalStateException("The plugin did not register its item listener");
+        }
+
+        List<Throw> throwsByTick = scriptThrows(server, plugin, scenario, new Random(seed));
+        Report report = run(server, plugin, listener, scenario, throwsByTick);
+        server.disablePlugin();
+
+        report.print(server, plugin.getMetrics());
+    }
+
+    /**
+     * Places every player and decides when they throw, from the seed only.
+     */
+    private static List<Throw> scriptThrows(SimulatedServer server, ItemsBGS plugin, Scenario scenario, Random random) {
+        int totalPlayers = scenario.getWaves().stream().mapToInt(Scenario.Wave::getPlayers).sum();
+        int columns = (int) Math.ceil(Math.sqrt(totalPlayers));
+
+        List<Throw> scripted = new ArrayList<>();
+        int index = 0;
+        for (Scenario.Wave wave : scenario.getWaves()) {
+            for (int i = 0; i < wave.getPlayers(); i++, index++) {
+                double x = (index % columns - columns / 2.0) * PLAYER_SPACING;
+                double z = (index / columns - columns / 2.0) * PLAYER_SPACING;
+                float yaw = random.nextFloat() * 360f;
+                float pitch = 20f + random.nextFloat() * 25f; // Looking down at the ground a few blocks away
+
+                SimulatedPlayer player = server.addPlayer(wave.getItemId() + "-" + i, x, z, yaw, pitch);
+                player.setHeldItem(plugin.getItemManager().createItemStack(wave.getItemId(), 16));
+                int tick = wave.getStartTick() + random.nextInt(Math.max(1, wave.getWindowTicks()));
+                scripted.add(new Throw(tick, player));
+            }
+        }
+        scripted.sort((a, b) -> Integer.compare(a.tick, b.tick));
+        return scripted;
+    }
+
+    private static Report run(SimulatedServer server, ItemsBGS plugin, ItemListener listener, Scenario scenario, List<Throw> scripted) {
+        Report report = new Report(scenario);
+        SimulatedScheduler scheduler = server.getScheduler();
+        int nextThrow = 0;
+
+        for (int tick = 1; tick <= scenario.getDurationTicks(); tick++) {
+            // Measured: the player clicks of this tick plus every scheduled task (the plugin's share of a tick)
+            long start = System.nanoTime();
+            while (nextThrow < scripted.size() && scripted.get(nextThrow).tick <= tick) {
+                SimulatedPlayer player = scripted.get(nextThrow++).player;
+                listener.onPlayerInteract(new PlayerInteractEvent(player.getPlayer(), Action.RIGHT_CLICK_AIR,
+                        player.getHeldItem(), null, BlockFace.SELF));
+            }
+            scheduler.heartbeat();
+            report.tickNanos[tick - 1] = System.nanoTime() - start;
+
+            // Not measured: the world moving entities, and sampling the gauges
+            server.getWorld().tick();
+            report.sample(scheduler, plugin.getMetrics());
+        }
+        // Whatever is still held once the scenario is over (should be nothing once everything burned out)
+        report.liveAtEnd = plugin.getLifecycle().getLiveCounts();
+        return report;
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1_000.0);
+        }
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+
+    private record Throw(int tick, SimulatedPlayer player) {
+    }
+
+    private static final class Report {
+        private final Scenario scenario;
+        private final long[] tickNanos;
+        private final Map<String, Integer> peakGauges = new LinkedHashMap<>();
+        private Map<String, Integer> liveAtEnd = Map.of();
+        private int peakTasks = 0;
+
+        private Report(Scenario scenario) {
+            this.scenario = scenario;
+            this.tickNanos = new long[scenario.getDurationTicks()];
+        }
+
+        private void sample(SimulatedScheduler scheduler, MetricsRegistry metrics) {
+            peakTasks = Math.max(peakTasks, scheduler.getTaskCount());
+            metrics.getGauges().forEach((name, value) -> peakGauges.merge(name, value, Math::max));
+        }
+
+        private void print(SimulatedServer server, MetricsRegistry metrics) {
+            long[] sorted = tickNanos.clone();
+            Arrays.sort(sorted);
+            long total = Arrays.stream(sorted).sum();
+            long slowTicks = Arrays.stream(sorted).filter(nanos -> nanos > SLOW_TICK_NANOS).count();
+            long overBudget = Arrays.stream(sorted).filter(nanos -> nanos > TICK_BUDGET_NANOS).count();
+
+            System.out.println("Scenario: " + scenario.getName() + " (" + scenario.getDescription() + ")");
+            System.out.println("Simulated ticks: " + sorted.length);
+            System.out.println("Plugin cost per tick: mean " + formatNanos(total / sorted.length)
+                    + ", p50 " + formatNanos(sorted[sorted.length / 2])
+                    + ", p99 " + formatNanos(sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.99) - 1)])
+                    + ", max " + formatNanos(sorted[sorted.length - 1]));
+            System.out.println("Ticks over " + formatNanos(SLOW_TICK_NANOS) + ": " + slowTicks
+                    + ", over the full " + formatNanos(TICK_BUDGET_NANOS) + " tick: " + overBudget);
+            System.out.println("Scheduled tasks: peak " + peakTasks + ", ever scheduled "
+                    + server.getScheduler().getTotalScheduled());
+            System.out.println("Peak live: " + peakGauges);
+            System.out.println("Live after the last tick: " + liveAtEnd);
+            System.out.println("Activations: " + metrics.getActivations());
+            System.out.println("Rejects: " + metrics.getRejects());
+
+            SimulatedWorld world = server.getWorld();
+            System.out.println("World: " + world.getBlockChanges() + " block changes, " + world.getDroppedItems()
+                    + " items dropped, " + world.getEffectCalls() + " particle/sound calls");
+
+            int messages = 0;
+            int potionEffects = 0;
+            int effectPackets = 0;
+            double damage = 0;
+            for (SimulatedPlayer player : server.getPlayers()) {
+                messages += player.getMessages();
+                effectPackets += player.getEffectPackets();
+                potionEffects += player.getPotionEffects();
+                damage += player.getDamageTaken();
+            }
+            System.out.println("Players: " + messages + " messages, " + effectPackets + " sound/particle packets, "
+                    + potionEffects + " potion effects applied, "
+                    + String.format(Locale.ROOT, "%.1f", damage) + " damage taken");
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package me.remag501.itemsbgs.benchmark.simulation;
+
+import me.remag501.itemsbgs.runnable.RegionScheduler;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A stand-in for region-threaded server software.
+ * On every {@link #heartbeat()} the due tasks of each region run on a thread pool, regions in
+ * parallel and each region's tasks in order, then the global shard runs on the calling thread.
+ * Code that touches state outside its own region (or shared state without synchronization) shows
+ * up here as races that the single-threaded Bukkit scheduler hides.
+ * Tasks may be scheduled between heartbeats or from tasks of the current one.
+ */
+public class ParallelRegionScheduler implements RegionScheduler, AutoCloseable {
+
+    private final Map<ShardKey, Shard> shards = new ConcurrentHashMap<>();
+    private final Shard global = new Shard();
+    private final ExecutorService pool;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile long currentTick = 0;
+    private volatile boolean running = false;
+    private long peakParallelShards = 0;
+
+    /**
+     * @param threads Threads the regions are spread over.
+     */
+    public ParallelRegionScheduler(int threads) {
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "region-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Task runAt(World world, int chunkX, int chunkZ, long delayTicks, Runnable task) {
+        return schedule(shardFor(world, RegionScheduler.regionKey(chunkX, chunkZ)), delayTicks, 0, task);
+    }
+
+    @Override
+    public Task runAtFixedRate(World world, int chunkX, int chunkZ, long delayTicks, long periodTicks, Runnable task) {
+        return schedule(shardFor(world, RegionScheduler.regionKey(chunkX, chunkZ)), delayTicks, Math.max(1, periodTicks), task);
+    }
+
+    @Override
+    public Task runGlobal(long delayTicks, long periodTicks, Runnable task) {
+        return schedule(global, delayTicks, Math.max(0, periodTicks), task);
+    }
+
+    @Override
+    public void cancelWorld(World world) {
+        UUID worldId = world.getUID();
+        for (Map.Entry<ShardKey, Shard> entry : shards.entrySet()) {
+            if (worldId.equals(entry.getKey().worldId())) {
+                entry.getValue().cancelAll();
+            }
+        }
+    }
+
+    @Override
+    public void cancelAll() {
+        for (Shard shard : shards.values()) {
+            shard.cancelAll();
+        }
+        global.cancelAll();
+    }
+
+    @Override
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * @return The most regions that had work in a single heartbeat.
+     */
+    public long getPeakParallelShards() {
+        return peakParallelShards;
+    }
+
+    /**
+     * Advances one tick: runs the due tasks of every region in parallel, then the global ones.
+     * Blocks until all of them are done. A failing task doesn't stop the others, the first
+     * failure is rethrown once every region and the global shard have run.
+     */
+    public void heartbeat() {
+        currentTick++;
+        running = true;
+        try {
+            List<Callable<Void>> jobs = new ArrayList<>();
+            Iterator<Shard> iterator = shards.values().iterator();
+            while (iterator.hasNext()) {
+                Shard shard = iterator.next();
+                if (shard.isIdle()) {
+                    iterator.remove();
+                } else if (shard.hasDue(currentTick)) {
+                    jobs.add(() -> {
+                        shard.runDue(currentTick);
+                        return null;
+                    });
+                }
+            }
+            peakParallelShards = Math.max(peakParallelShards, jobs.size());
+
+            RuntimeException failure = null;
+            try {
+                for (Future<Void> future : pool.invokeAll(jobs)) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = new IllegalStateException("A region task failed", e.getCause());
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                global.runDue(currentTick);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("A global task failed", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private Task schedule(Shard shard, long delayTicks, long periodTicks, Runnable runnable) {
+        long minDelay = running ? 1 : 0;
+        ScheduledTask task = new ScheduledTask(runnable, currentTick + Math.max(minDelay, delayTicks), periodTicks);
+        shard.add(task);
+        pending.incrementAndGet();
+        return task;
+    }
+
+    private Shard shardFor(World world, long regionKey) {
+        return shards.computeIfAbsent(new ShardKey(world.getUID(), regionKey), key -> new Shard());
+    }
+
+    private record ShardKey(UUID worldId, long regionKey) {
+    }
+
+    /**
+     * The queue of one region. Tasks are added from any thread, and run by one thread at a time.
+     */
+    private final class Shard {
+        private final PriorityQueue<ScheduledTask> queue = new PriorityQueue<>((a, b) -> a.dueTick != b.dueTick
+                ? Long.compare(a.dueTick, b.dueTick)
+                : Long.compare(a.sequence, b.sequence));
+        private long sequence = 0;
+
+        private synchronized void add(ScheduledTask task) {
+            task.sequence = sequence++;
+            queue.add(task);
+        }
+
+        private synchronized boolean isIdle() {
+            return queue.isEmpty();
+        }
+
+        private synchronized boolean hasDue(long tick) {
+            ScheduledTask next = queue.peek();
+            return next != null && next.dueTick <= tick;
+        }
+
+        /**
+         * Runs every due task, even after one fails. The first failure is rethrown at the end.
+         */
+        private void runDue(long tick) {
+            RuntimeException failure = null;
+            ScheduledTask task;
+            while ((task = pollDue(tick)) != null) {
+                if (task.periodTicks > 0) {
+                    // Requeue before running, so the task can cancel itself
+                    task.dueTick = tick + task.periodTicks;
+                    add(task);
+                } else {
+                    task.cancel();
+                }
+                try {
+                    task.runnable.run();
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private synchronized ScheduledTask pollDue(long tick) {
+            ScheduledTask task;
+            while ((task = queue.peek()) != null && task.dueTick <= tick) {
+                queue.poll();
+                if (!task.isCancelled()) {
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        private synchronized void cancelAll() {
+            for (ScheduledTask task : queue) {
+                task.cancel();
+            }
+            queue.clear();
+        }
+    }
+
+    private final class ScheduledTask implements Task {
+        private final Runnable runnable;
+        private final long periodTicks;
+        private volatile long dueTick;
+        private long sequence;
+        private volatile boolean cancelled = false;
+
+        private ScheduledTask(Runnable runnable, long dueTick, long periodTicks) {
+            this.runnable = runnable;
+            this.dueTick = dueTick;
+            this.periodTicks = periodTicks;
+        }
+
+        @Override
+        public synchronized void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                pending.decrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package me.remag501.itemsbgs.benchmark.simulation;
+
+import java.util.List;
+
+/**
+ * A scripted load scenario: waves of players that each use one item once,
+ * at a deterministic pseudo-random tick inside the wave's window.
+ */
+public class Scenario {
+
+    private static final List<Scenario> SCENARIOS = List.of(
+            new Scenario("molotov-rush", "200 players throw a molotov within 5 seconds", 600,
+                    new Wave("molotov", 200, 1, 100)),
+            new Scenario("teargas-rush", "200 players throw tear gas within 5 seconds", 600,
+                    new Wave("teargas", 200, 1, 100)),
+            new Scenario("grenade-rush", "200 players throw a grenade within 5 seconds", 200,
+                    new Wave("grenade", 200, 1, 100)),
+            new Scenario("mixed", "100 molotovs, then 100 tear gas canisters, then 100 grenades, overlapping", 800,
+                    new Wave("molotov", 100, 1, 100),
+                    new Wave("teargas", 100, 60, 100),
+                    new Wave("grenade", 100, 120, 100)));
+
+    private final String name;
+    private final String description;
+    private final int durationTicks;
+    private final List<Wave> waves;
+
+    public Scenario(String name, String description, int durationTicks, Wave... waves) {
+        this.name = name;
+        this.description = description;
+        this.durationTicks = durationTicks;
+        this.waves = List.of(waves);
+    }
+
+    /**
+     * @return The built-in scenario with this name, or null.
+     */
+    public static Scenario byName(String name) {
+        for (Scenario scenario : SCENARIOS) {
+            if (scenario.name.equalsIgnoreCase(name)) {
+                return scenario;
+            }
+        }
+        return null;
+    }
+
+    public static List<Scenario> getScenarios() {
+        return SCENARIOS;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return How many ticks the scenario runs, including the time for effects to play out.
+     */
+    public int getDurationTicks() {
+        return durationTicks;
+    }
+
+    public List<Wave> getWaves() {
+        return waves;
+    }
+
+    /**
+     * A group of players that all use the same item.
+     */
+    public static final class Wave {
+        private final String itemId;
+        private final int players;
+        private final int startTick;
+        private final int windowTicks;
+
+        public Wave(String itemId, int players, int startTick, int windowTicks) {
+            this.itemId = itemId;
+            this.players = players;
+            this.startTick = startTick;
+            this.windowTicks = windowTicks;
+        }
+
+        public String getItemId() {
+            return itemId;
+        }
+
+        public int getPlayers() {
+            return players;
+        }
+
+        public int getStartTick() {
+            return startTick;
+        }
+
+        public int getWindowTicks() {
+            return windowTicks;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package me.remag501.itemsbgs.benchmark.simulation;
+
+import me.remag501.itemsbgs.benchmark.StandIns;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * A player standing still in a simulated world, holding one stack of items.
+ * Counts what the plugin does to it (messages, effect packets, potion effects, damage).
+ */
+public class SimulatedPlayer {
+
+    private static final double EYE_HEIGHT = 1.62;
+    private static final double WIDTH = 0.6;
+    private static final double HEIGHT = 1.8;
+
+    private final UUID uniqueId = UUID.randomUUID();
+    private final String name;
+    private final SimulatedWorld world;
+    private final int entityId;
+    private final Location location;
+    private final Player player;
+    private ItemStack heldItem;
+    private Vector velocity = new Vector();
+
+    private int messages = 0;
+    private int potionEffects = 0;
+    private int effectPackets = 0;
+    private double damageTaken = 0;
+
+    public SimulatedPlayer(String name, SimulatedWorld world, double x, double z, float yaw, float pitch) {
+        this.name = name;
+        this.world = world;
+        this.entityId = world.nextEntityId();
+        this.location = new Location(world.getWorld(), x, StandIns.GROUND_Y, z, yaw, pitch);
+
+        PlayerInventory inventory = StandIns.proxy(PlayerInventory.class, Map.of(
+                "getItemInMainHand", args -> heldItem,
+                "setItemInMainHand", args -> {
+                    heldItem = (ItemStack) args[0];
+                    return null;
+                },
+                // Only the main hand holds anything; the stack handed out is the live one, like on a server
+                "getItem", args -> args[0] == EquipmentSlot.HAND ? heldItem : null,
+                "setItem", args -> {
+                    if (args[0] == EquipmentSlot.HAND) {
+                        heldItem = (ItemStack) args[1];
+                    }
+                    return null;
+                },
+                "addItem", args -> new HashMap<Integer, ItemStack>()));
+
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getUniqueId", args -> uniqueId);
+        answers.put("getName", args -> this.name);
+        answers.put("getDisplayName", args -> this.name);
+        answers.put("getEntityId", args -> entityId);
+        answers.put("getWorld", args -> world.getWorld());
+        answers.put("getLocation", args -> location.clone());
+        answers.put("getEyeLocation", args -> location.clone().add(0, EYE_HEIGHT, 0));
+        answers.put("getBoundingBox", args -> new BoundingBox(
+                location.getX() - WIDTH / 2, location.getY(), location.getZ() - WIDTH / 2,
+                location.getX() + WIDTH / 2, location.getY() + HEIGHT, location.getZ() + WIDTH / 2));
+        answers.put("getVelocity", args -> velocity.clone());
+        answers.put("setVelocity", args -> {
+            velocity = ((Vector) args[0]).clone();
+            return null;
+        });
+        answers.put("getInventory", args -> inventory);
+        answers.put("getGameMode", args -> GameMode.SURVIVAL);
+        answers.put("getHealth", args -> Math.max(0, 20 - damageTaken));
+        answers.put("isValid", args -> true);
+        answers.put("isOnline", args -> true);
+        answers.put("isOp", args -> true);
+        answers.put("hasPermission", args -> true);
+        answers.put("sendMessage", args -> {
+            messages++;
+            return null;
+        });
+        answers.put("getClientViewDistance", args -> 10);
+        answers.put("playSound", args -> {
+            effectPackets++;
+            return null;
+        });
+        answers.put("spawnParticle", args -> {
+            effectPackets++;
+            return null;
+        });
+        answers.put("addPotionEffect", args -> {
+            potionEffects++;
+            return true;
+        });
+        answers.put("damage", args -> {
+            damageTaken += (Double) args[0];
+            return null;
+        });
+        this.player = StandIns.proxy(Player.class, answers);
+        world.addLivingEntity(player);
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public ItemStack getHeldItem() {
+        return heldItem;
+    }
+
+    public void setHeldItem(ItemStack heldItem) {
+        this.heldItem = heldItem;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public int getPotionEffects() {
+        return potionEffects;
+    }
+
+    /**
+     * @return The number of sounds and particle bursts sent to this player.
+     */
+    public int getEffectPackets() {
+        return effectPackets;
+    }
+
+    public double getDamageTaken() {
+        return damageTaken;
+    }
+}
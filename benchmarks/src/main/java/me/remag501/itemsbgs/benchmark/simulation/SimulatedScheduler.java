@@ -0,0 +1,166 @@
+package me.remag501.itemsbgs.benchmark.simulation;
+
+import me.remag501.itemsbgs.benchmark.StandIns;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A deterministic, single-threaded stand-in for the Bukkit scheduler.
+ * Tasks only run when {@link #heartbeat()} is called, in the order they were scheduled.
+ * Async tasks run on the heartbeat too, so every run of a scenario is identical.
+ */
+public class SimulatedScheduler {
+
+    private final List<Task> tasks = new ArrayList<>();
+    private final BukkitScheduler scheduler;
+    private long currentTick = 0;
+    private int nextTaskId = 1;
+    private int peakTaskCount = 0;
+
+    public SimulatedScheduler() {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("runTask", args -> schedule((Plugin) args[0], args[1], 0, -1));
+        answers.put("runTaskAsynchronously", args -> schedule((Plugin) args[0], args[1], 0, -1));
+        answers.put("runTaskLater", args -> schedule((Plugin) args[0], args[1], (Long) args[2], -1));
+        answers.put("runTaskLaterAsynchronously", args -> schedule((Plugin) args[0], args[1], (Long) args[2], -1));
+        answers.put("runTaskTimer", args -> schedule((Plugin) args[0], args[1], (Long) args[2], (Long) args[3]));
+        answers.put("runTaskTimerAsynchronously", args -> schedule((Plugin) args[0], args[1], (Long) args[2], (Long) args[3]));
+        answers.put("cancelTask", args -> {
+            cancel((Integer) args[0]);
+            return null;
+        });
+        answers.put("cancelTasks", args -> {
+            tasks.forEach(task -> {
+                if (task.owner == args[0]) {
+                    task.cancelled = true;
+                }
+            });
+            return null;
+        });
+        answers.put("isQueued", args -> find((Integer) args[0]) != null);
+        answers.put("isCurrentlyRunning", args -> false);
+        answers.put("getPendingTasks", args -> tasks.stream().filter(task -> !task.cancelled).map(task -> task.handle).toList());
+        this.scheduler = StandIns.proxy(BukkitScheduler.class, answers);
+    }
+
+    /**
+     * @return The scheduler handed to Bukkit.
+     */
+    public BukkitScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Advances one tick and runs every task that is due.
+     */
+    public void heartbeat() {
+        currentTick++;
+
+        // Tasks scheduled while running are picked up on a later heartbeat, like Bukkit does
+        Task[] snapshot = tasks.toArray(new Task[0]);
+        for (Task task : snapshot) {
+            if (task.cancelled || task.nextRun > currentTick) {
+                continue;
+            }
+            task.body.accept(task.handle);
+            if (task.period <= 0) {
+                task.cancelled = true;
+            } else {
+                task.nextRun = currentTick + task.period;
+            }
+        }
+        tasks.removeIf(task -> task.cancelled);
+    }
+
+    /**
+     * @return The number of scheduled (not yet finished or cancelled) tasks.
+     */
+    public int getTaskCount() {
+        int count = 0;
+        for (Task task : tasks) {
+            if (!task.cancelled) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The highest number of tasks that were scheduled at the same time.
+     */
+    public int getPeakTaskCount() {
+        return peakTaskCount;
+    }
+
+    /**
+     * @return The number of tasks ever scheduled.
+     */
+    public int getTotalScheduled() {
+        return nextTaskId - 1;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BukkitTask schedule(Plugin owner, Object body, long delay, long period) {
+        Task task = new Task(nextTaskId++, owner, body instanceof Runnable runnable
+                ? handle -> runnable.run()
+                : (Consumer<BukkitTask>) body);
+        task.nextRun = currentTick + Math.max(1, delay);
+        task.period = period;
+        tasks.add(task);
+        peakTaskCount = Math.max(peakTaskCount, getTaskCount());
+        return task.handle;
+    }
+
+    private void cancel(int taskId) {
+        Task task = find(taskId);
+        if (task != null) {
+            task.cancelled = true;
+        }
+    }
+
+    private Task find(int taskId) {
+        for (Task task : tasks) {
+            if (task.id == taskId && !task.cancelled) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private static final class Task {
+        private final int id;
+        private final Plugin owner;
+        private final Consumer<BukkitTask> body;
+        private final BukkitTask handle;
+        private long nextRun;
+        private long period;
+        private boolean cancelled;
+
+        private Task(int id, Plugin owner, Consumer<BukkitTask> body) {
+            this.id = id;
+            this.owner = owner;
+            this.body = body;
+            this.handle = StandIns.proxy(BukkitTask.class, Map.of(
+                    "getTaskId", args -> this.id,
+                    "getOwner", args -> this.owner,
+                    "isSync", args -> true,
+                    "isCancelled", args -> cancelled,
+                    "cancel", args -> {
+                        cancelled = true;
+                        return null;
+                    }));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package me.remag501.itemsbgs.benchmark.simulation;
+
+import me.remag501.itemsbgs.ItemsBGS;
+import me.remag501.itemsbgs.benchmark.StandIns;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.plugin.InvalidDescriptionException;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.ServicesManager;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * A headless server: one simulated world, simulated players, the deterministic scheduler
+ * and a plugin manager that keeps the registered listeners so scenarios can call them.
+ * Bukkit only accepts one server per JVM, so install it once per run.
+ */
+public class SimulatedServer {
+
+    private static final Logger LOGGER = Logger.getLogger("ItemsBGS-simulation");
+
+    private final SimulatedScheduler scheduler = new SimulatedScheduler();
+    private final SimulatedWorld world = new SimulatedWorld("world");
+    private final List<SimulatedPlayer> players = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private final Server server;
+    private ItemsBGS plugin;
+
+    private SimulatedServer() {
+        ItemFactory itemFactory = StandIns.itemFactory();
+        PluginManager pluginManager = StandIns.proxy(PluginManager.class, Map.of(
+                "registerEvents", args -> {
+                    listeners.add((Listener) args[0]);
+                    return null;
+                },
+                "isPluginEnabled", args -> plugin != null));
+        ServicesManager servicesManager = StandIns.proxy(ServicesManager.class, Map.of());
+
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getLogger", args -> LOGGER);
+        answers.put("getName", args -> "SimulatedServer");
+        answers.put("getVersion", args -> "1.19.4");
+        answers.put("getBukkitVersion", args -> "1.19.4-R0.1-SNAPSHOT");
+        answers.put("isPrimaryThread", args -> true);
+        answers.put("getViewDistance", args -> 10);
+        answers.put("getScheduler", args -> scheduler.getScheduler());
+        answers.put("getPluginManager", args -> pluginManager);
+        answers.put("getServicesManager", args -> servicesManager);
+        answers.put("getItemFactory", args -> itemFactory);
+        answers.put("getWorlds", args -> List.of(world.getWorld()));
+        answers.put("getWorld", args -> world.getWorld());
+        answers.put("getOnlinePlayers", args -> onlinePlayers());
+        answers.put("getPlayer", args -> findPlayer(args[0]));
+        answers.put("getPlayerExact", args -> findPlayer(args[0]));
+        answers.put("getPluginCommand", args -> plugin == null ? null : new SimulatedCommand((String) args[0], plugin));
+        this.server = StandIns.proxy(Server.class, answers);
+    }
+
+    /**
+     * Creates the server and installs it as the Bukkit server.
+     */
+    public static SimulatedServer install() {
+        SimulatedServer simulated = new SimulatedServer();
+        Bukkit.setServer(simulated.server);
+        return simulated;
+    }
+
+    /**
+     * Loads and enables the plugin from the classpath, with its data folder in a temporary directory.
+     */
+    @SuppressWarnings("deprecation")
+    public ItemsBGS enablePlugin() throws IOException, InvalidDescriptionException {
+        PluginDescriptionFile description;
+        try (InputStream stream = ItemsBGS.class.getResourceAsStream("/plugin.yml")) {
+            if (stream == null) {
+                throw new IOException("plugin.yml is not on the classpath");
+            }
+            description = new PluginDescriptionFile(stream);
+        }
+
+        File dataFolder = Files.createTempDirectory("itemsbgs-simulation").toFile();
+        plugin = new SimulatedPlugin(new JavaPluginLoader(server), description, dataFolder, new File(dataFolder, "ItemsBGS.jar"));
+        plugin.onLoad();
+        plugin.onEnable();
+        return plugin;
+    }
+
+    /**
+     * Disables the plugin, as on a server shutdown.
+     */
+    public void disablePlugin() {
+        if (plugin != null) {
+            plugin.onDisable();
+        }
+    }
+
+    /**
+     * Adds a player to the world.
+     */
+    public SimulatedPlayer addPlayer(String name, double x, double z, float yaw, float pitch) {
+        SimulatedPlayer player = new SimulatedPlayer(name, world, x, z, yaw, pitch);
+        players.add(player);
+        return player;
+    }
+
+    /**
+     * @return The first registered listener of the given type, or null.
+     */
+    public <T extends Listener> T getListener(Class<T> type) {
+        for (Listener listener : listeners) {
+            if (type.isInstance(listener)) {
+                return type.cast(listener);
+            }
+        }
+        return null;
+    }
+
+    public SimulatedScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public SimulatedWorld getWorld() {
+        return world;
+    }
+
+    public List<SimulatedPlayer> getPlayers() {
+        return players;
+    }
+
+    private List<Player> onlinePlayers() {
+        List<Player> online = new ArrayList<>(players.size());
+        for (SimulatedPlayer player : players) {
+            online.add(player.getPlayer());
+        }
+        return online;
+    }
+
+    private Player findPlayer(Object key) {
+        for (SimulatedPlayer player : players) {
+            Player bukkitPlayer = player.getPlayer();
+            if (key instanceof UUID uuid ? bukkitPlayer.getUniqueId().equals(uuid) : bukkitPlayer.getName().equalsIgnoreCase((String) key)) {
+                return bukkitPlayer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The plugin, created through the constructor meant for running outside a plugin loader.
+     */
+    private static final class SimulatedPlugin extends ItemsBGS {
+        private SimulatedPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+            super(loader, description, dataFolder, file);
+        }
+    }
+
+    private static final class SimulatedCommand extends PluginCommand {
+        private SimulatedCommand(String name, Plugin owner) {
+            super(name.contains(":") ? name.substring(name.indexOf(':') + 1) : name, owner);
+        }
+    }
+}
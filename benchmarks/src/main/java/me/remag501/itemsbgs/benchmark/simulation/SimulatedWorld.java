@@ -0,0 +1,271 @@
+package me.remag501.itemsbgs.benchmark.simulation;
+
+import me.remag501.itemsbgs.benchmark.StandIns;
+import me.remag501.itemsbgs.util.BlockKey;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An in-memory world: flat stone terrain below {@link StandIns#GROUND_Y}, air above,
+ * block changes kept in a map, and dropped items moved with simple vanilla-like physics.
+ */
+public class SimulatedWorld {
+
+    private static final double GRAVITY = 0.04;
+    private static final double DRAG = 0.98;
+    private static final double GROUND_FRICTION = 0.6;
+
+    private final UUID uid = UUID.randomUUID();
+    private final Map<Long, Material> changedBlocks = new HashMap<>();
+    private final List<DroppedItem> items = new ArrayList<>();
+    private final List<LivingEntity> livingEntities = new ArrayList<>();
+    private final World world;
+
+    private long gameTime = 0;
+    private int nextEntityId = 1;
+    private int blockChanges = 0;
+    private int droppedItems = 0;
+    private int effectCalls = 0;
+
+    public SimulatedWorld(String name) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getUID", args -> uid);
+        answers.put("getName", args -> name);
+        answers.put("getMinHeight", args -> -64);
+        answers.put("getMaxHeight", args -> 320);
+        answers.put("getGameTime", args -> gameTime);
+        answers.put("getFullTime", args -> gameTime);
+        answers.put("isChunkLoaded", args -> true);
+        answers.put("getChunkAt", args -> {
+            if (args.length == 1) {
+                Location location = (Location) args[0];
+                return chunk(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+            }
+            return chunk((Integer) args[0], (Integer) args[1]);
+        });
+        answers.put("getBlockAt", args -> {
+            if (args.length == 1) {
+                Location location = (Location) args[0];
+                return block(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+            }
+            return block((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+        });
+        answers.put("dropItem", args -> drop((Location) args[0], (ItemStack) args[1]));
+        answers.put("dropItemNaturally", args -> drop((Location) args[0], (ItemStack) args[1]));
+        answers.put("getLivingEntities", args -> new ArrayList<>(livingEntities));
+        answers.put("getNearbyEntities", args -> nearby((BoundingBox) args[0], args[1]));
+        answers.put("getPlayers", args -> new ArrayList<>(livingEntities));
+        answers.put("getViewDistance", args -> 10);
+        answers.put("spawnParticle", args -> {
+            effectCalls++;
+            return null;
+        });
+        answers.put("playSound", args -> {
+            effectCalls++;
+            return null;
+        });
+        this.world = StandIns.proxy(World.class, answers);
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Adds an entity (e.g., a simulated player) that blasts and clouds can hit.
+     */
+    public void addLivingEntity(LivingEntity entity) {
+        livingEntities.add(entity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Entity> nearby(BoundingBox area, Object predicate) {
+        Predicate<Entity> filter = (Predicate<Entity>) predicate;
+        List<Entity> found = new ArrayList<>();
+        for (LivingEntity entity : livingEntities) {
+            if (area.overlaps(entity.getBoundingBox()) && filter.test(entity)) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    public int nextEntityId() {
+        return nextEntityId++;
+    }
+
+    /**
+     * Moves every dropped item by one tick, then advances the game time.
+     */
+    public void tick() {
+        for (int i = items.size() - 1; i >= 0; i--) {
+            DroppedItem item = items.get(i);
+            if (!item.valid) {
+                items.remove(i);
+                continue;
+            }
+            item.tick();
+        }
+        gameTime++;
+    }
+
+    public int getBlockChanges() {
+        return blockChanges;
+    }
+
+    public int getDroppedItems() {
+        return droppedItems;
+    }
+
+    /**
+     * @return Particle and sound calls made in this world.
+     */
+    public int getEffectCalls() {
+        return effectCalls;
+    }
+
+    /**
+     * @return Dropped items that are still in the world.
+     */
+    public int getLiveItemCount() {
+        return items.size();
+    }
+
+    Material getType(int x, int y, int z) {
+        Material changed = changedBlocks.get(BlockKey.pack(x, y, z));
+        if (changed != null) {
+            return changed;
+        }
+        return y < StandIns.GROUND_Y ? Material.STONE : Material.AIR;
+    }
+
+    private void setType(int x, int y, int z, Material type) {
+        changedBlocks.put(BlockKey.pack(x, y, z), type);
+        blockChanges++;
+    }
+
+    private Chunk chunk(int chunkX, int chunkZ) {
+        return StandIns.proxy(Chunk.class, Map.of(
+                "getX", args -> chunkX,
+                "getZ", args -> chunkZ,
+                "getWorld", args -> world,
+                "isLoaded", args -> true,
+                "getBlock", args -> block((chunkX << 4) + (Integer) args[0], (Integer) args[1], (chunkZ << 4) + (Integer) args[2]),
+                "getChunkSnapshot", args -> snapshot(chunkX, chunkZ)));
+    }
+
+    private ChunkSnapshot snapshot(int chunkX, int chunkZ) {
+        // Reads the live map, which is fine here: the simulation is single-threaded
+        return StandIns.proxy(ChunkSnapshot.class, Map.of(
+                "getX", args -> chunkX,
+                "getZ", args -> chunkZ,
+                "getWorldName", args -> world.getName(),
+                "getBlockType", args -> getType((chunkX << 4) + (Integer) args[0], (Integer) args[1], (chunkZ << 4) + (Integer) args[2])));
+    }
+
+    private Block block(int x, int y, int z) {
+        return StandIns.proxy(Block.class, Map.of(
+                "getX", args -> x,
+                "getY", args -> y,
+                "getZ", args -> z,
+                "getWorld", args -> world,
+                "getType", args -> getType(x, y, z),
+                "isEmpty", args -> getType(x, y, z).isAir(),
+                "getLocation", args -> new Location(world, x, y, z),
+                "setType", args -> {
+                    setType(x, y, z, (Material) args[0]);
+                    return null;
+                }));
+    }
+
+    private Item drop(Location location, ItemStack stack) {
+        DroppedItem item = new DroppedItem(location, stack.clone());
+        items.add(item);
+        droppedItems++;
+        return item.entity;
+    }
+
+    /**
+     * A dropped item entity: falls, slows down and comes to rest on the ground.
+     */
+    private final class DroppedItem {
+        private final int entityId = nextEntityId();
+        private final ItemStack stack;
+        private final Item entity;
+        private double x;
+        private double y;
+        private double z;
+        private Vector velocity = new Vector();
+        private int ticksLived = 0;
+        private boolean onGround = false;
+        private boolean valid = true;
+
+        private DroppedItem(Location location, ItemStack stack) {
+            this.x = location.getX();
+            this.y = location.getY();
+            this.z = location.getZ();
+            this.stack = stack;
+
+            Map<String, Function<Object[], Object>> answers = new HashMap<>();
+            answers.put("getEntityId", args -> entityId);
+            answers.put("getWorld", args -> world);
+            answers.put("getLocation", args -> new Location(world, x, y, z));
+            answers.put("getVelocity", args -> velocity.clone());
+            answers.put("setVelocity", args -> {
+                velocity = ((Vector) args[0]).clone();
+                return null;
+            });
+            answers.put("getTicksLived", args -> ticksLived);
+            answers.put("isOnGround", args -> onGround);
+            answers.put("isInWater", args -> false);
+            answers.put("isValid", args -> valid);
+            answers.put("isDead", args -> !valid);
+            answers.put("remove", args -> {
+                valid = false;
+                return null;
+            });
+            answers.put("getItemStack", args -> this.stack);
+            this.entity = StandIns.proxy(Item.class, answers);
+        }
+
+        private void tick() {
+            ticksLived++;
+            velocity.setY(velocity.getY() - GRAVITY);
+
+            x += velocity.getX();
+            y += velocity.getY();
+            z += velocity.getZ();
+
+            if (y <= StandIns.GROUND_Y) {
+                y = StandIns.GROUND_Y;
+                velocity.setY(0);
+                onGround = true;
+            } else {
+                onGround = false;
+            }
+
+            double horizontalDrag = onGround ? DRAG * GROUND_FRICTION : DRAG;
+            velocity.setX(velocity.getX() * horizontalDrag);
+            velocity.setY(velocity.getY() * DRAG);
+            velocity.setZ(velocity.getZ() * horizontalDrag);
+        }
+    }
+}
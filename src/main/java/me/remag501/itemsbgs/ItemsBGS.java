@@ -1,12 +1,47 @@
 package me.remag501.itemsbgs;
 
+import me.remag501.itemsbgs.api.HazardService;
+import me.remag501.itemsbgs.command.CompletionIndex;
 import me.remag501.itemsbgs.command.ItemsBGSCommand;
-import me.remag501.itemsbgs.item.GrenadeItem;
-import me.remag501.itemsbgs.item.MolotovItem;
-import me.remag501.itemsbgs.item.TearGasItem;
+import me.remag501.itemsbgs.listener.CompletionListener;
 import me.remag501.itemsbgs.listener.ItemListener;
+import me.remag501.itemsbgs.listener.LifecycleListener;
+import me.remag501.itemsbgs.manager.AdmissionController;
+import me.remag501.itemsbgs.manager.BlastEngine;
+import me.remag501.itemsbgs.manager.HazardIndex;
+import me.remag501.itemsbgs.manager.ItemDefinitionLoader;
 import me.remag501.itemsbgs.manager.ItemManager;
+import me.remag501.itemsbgs.manager.LifecycleOwner;
+import me.remag501.itemsbgs.manager.LifecycleRegistry;
+import me.remag501.itemsbgs.metrics.MetricsRegistry;
+import me.remag501.itemsbgs.runnable.ActivationExecutor;
+import me.remag501.itemsbgs.runnable.BlockMutationQueue;
+import me.remag501.itemsbgs.runnable.EffectsBus;
+import me.remag501.itemsbgs.runnable.FireExpiryWheel;
+import me.remag501.itemsbgs.runnable.GasCloudEngine;
+import me.remag501.itemsbgs.runnable.GiveQueue;
+import me.remag501.itemsbgs.runnable.BukkitRegionScheduler;
+import me.remag501.itemsbgs.runnable.ProjectileEngine;
+import me.remag501.itemsbgs.runnable.RegionScheduler;
+import me.remag501.itemsbgs.runnable.TickMonitor;
+import me.remag501.itemsbgs.runnable.VirtualProjectileEngine;
+import me.remag501.itemsbgs.util.BallisticPredictor;
+import me.remag501.itemsbgs.util.BlockKey;
+import me.remag501.itemsbgs.util.ChunkSnapshotCache;
+import me.remag501.itemsbgs.util.FireJournal;
+import me.remag501.itemsbgs.util.VoxelRaycaster;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * Main class for the ItemsBGS Spigot plugin.
@@ -14,39 +49,343 @@ import org.bukkit.plugin.java.JavaPlugin;
  */
 public class ItemsBGS extends JavaPlugin {
 
+    private static final String ITEMS_FILE = "items.yml";
+    private static final String FIRE_JOURNAL_FILE = "fire-journal.dat";
+
     private static ItemsBGS plugin;
     private ItemManager itemManager;
+    private ProjectileEngine projectileEngine;
+    private VirtualProjectileEngine virtualProjectileEngine;
+    private boolean virtualProjectiles;
+    private FireExpiryWheel fireExpiryWheel;
+    private FireJournal fireJournal;
+    private BlockMutationQueue blockMutationQueue;
+    private GasCloudEngine gasCloudEngine;
+    private HazardIndex hazardIndex;
+    private ChunkSnapshotCache chunkSnapshotCache;
+    private VoxelRaycaster voxelRaycaster;
+    private BlastEngine blastEngine;
+    private EffectsBus effectsBus;
+    private BukkitRegionScheduler regionScheduler;
+    private GiveQueue giveQueue;
+    private ActivationExecutor activationExecutor;
+    private TickMonitor tickMonitor;
+    private AdmissionController admissionController;
+    private MetricsRegistry metrics;
+    private LifecycleRegistry lifecycle;
+
+    public ItemsBGS() {
+        super();
+    }
+
+    /**
+     * Creates the plugin outside a server's plugin loader (e.g., for the load simulator).
+     */
+    protected ItemsBGS(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
 
     @Override
     public void onEnable() {
         plugin = this;
+        saveDefaultConfig();
         getLogger().info("ItemsBGS: Initializing Item Manager and registering items.");
 
-        // 1. Initialize and register items
+        // 1. Start the engines that run item effects
+        startEngines();
+
+        // 2. Initialize and register the items defined in items.yml
         itemManager = new ItemManager(this);
         registerCustomItems();
 
-        // 2. Register command executor (passing the manager)
-        getCommand("itemsbgs").setExecutor(new ItemsBGSCommand(itemManager));
+        // 3. Register command executor (passing the manager)
+        // Tab completion suggestions are indexed up front and kept up to date by a listener
+        CompletionIndex completionIndex = new CompletionIndex(itemManager);
+        getCommand("itemsbgs").setExecutor(new ItemsBGSCommand(this, itemManager, metrics, completionIndex));
 
-        // 3. Register the event listener (passing the manager)
+        // 4. Register the event listener (passing the manager)
         getServer().getPluginManager().registerEvents(new ItemListener(this, itemManager), this);
+        getServer().getPluginManager().registerEvents(new LifecycleListener(lifecycle, chunkSnapshotCache), this);
+        getServer().getPluginManager().registerEvents(new CompletionListener(completionIndex), this);
 
         getLogger().info("ItemsBGS has been enabled!");
     }
 
     /**
-     * Registers all custom item classes with the ItemManager.
-     * Adding a new item simply requires adding a line here.
+     * Compiles items.yml and registers the items with the ItemManager.
+     * Invalid items are skipped (and logged), so one typo doesn't disable every item.
+     * Adding a new item simply requires adding an entry to items.yml.
      */
     private void registerCustomItems() {
-        itemManager.registerItem(new MolotovItem());
-        itemManager.registerItem(new GrenadeItem());
-        itemManager.registerItem(new TearGasItem());
+        File itemsFile = new File(getDataFolder(), ITEMS_FILE);
+        if (!itemsFile.exists()) {
+            saveResource(ITEMS_FILE, false);
+        }
+
+        ItemDefinitionLoader.Result result = new ItemDefinitionLoader().load(itemsFile);
+        for (String error : result.getErrors()) {
+            getLogger().warning(ITEMS_FILE + ": " + error);
+        }
+        itemManager.swap(itemManager.buildRegistry(result.getItems(), result.getKits()));
+    }
+
+    /**
+     * Recompiles items.yml off the main thread, then swaps the new items in on the main thread.
+     * If the file has any error, nothing changes and the current items stay in use.
+     * @param sender Who asked for the reload, told about the outcome.
+     */
+    public void reloadItems(CommandSender sender) {
+        File itemsFile = new File(getDataFolder(), ITEMS_FILE);
+        getServer().getScheduler().runTaskAsynchronously(this, () -> {
+            ItemDefinitionLoader.Result result = new ItemDefinitionLoader().load(itemsFile);
+            ItemManager.Registry next = result.getErrors().isEmpty() ? itemManager.buildRegistry(result.getItems(), result.getKits()) : null;
+            if (!isEnabled()) {
+                return; // Disabled while parsing, there is nothing left to swap into
+            }
+
+            getServer().getScheduler().runTask(this, () -> {
+                if (next == null) {
+                    sender.sendMessage("§cReload rejected, " + ITEMS_FILE + " has " + result.getErrors().size()
+                            + " error(s). The current items stay in use:");
+                    for (String error : result.getErrors()) {
+                        sender.sendMessage("§7 " + error);
+                    }
+                    return;
+                }
+                itemManager.swap(next);
+                sender.sendMessage("§aReloaded " + next.size() + " item(s) from " + ITEMS_FILE + ".");
+            });
+        });
+    }
+
+    /**
+     * Creates and schedules the shared engines used by the items.
+     * Each engine is a single repeating task, no matter how many items are active.
+     */
+    private void startEngines() {
+        metrics = new MetricsRegistry();
+
+        // Tick counter and rolling tick time, used to limit and degrade hazards under load
+        tickMonitor = new TickMonitor();
+        tickMonitor.runTaskTimer(this, 1L, 1L);
+        admissionController = new AdmissionController(tickMonitor, getConfig().getConfigurationSection("admission"));
+
+        // Sounds and particles of every item are merged and sent once per tick
+        effectsBus = new EffectsBus();
+        // Timed work keyed by world region (landings, fire expiry, gas clouds), run by one heartbeat after the projectile engines
+        regionScheduler = new BukkitRegionScheduler(getLogger());
+
+        // Targeting and landing prediction read chunk snapshots instead of the live world
+        chunkSnapshotCache = new ChunkSnapshotCache(getConfig().getInt("targeting.snapshot-max-age-ticks", 20));
+
+        // Shared projectile engine (one task for every thrown item)
+        // and the fire expiry wheels (one regional task for every region with temporary fire)
+        BallisticPredictor ballisticPredictor = new BallisticPredictor(chunkSnapshotCache);
+        projectileEngine = new ProjectileEngine(ballisticPredictor, regionScheduler, metrics.getTrackerTickLatency());
+        projectileEngine.runTaskTimer(this, 1L, 1L);
+        // Entity-free projectiles, used instead of dropped items when projectiles.virtual is on
+        virtualProjectiles = getConfig().getBoolean("projectiles.virtual", false);
+        virtualProjectileEngine = new VirtualProjectileEngine(ballisticPredictor, effectsBus, regionScheduler,
+                metrics.getTrackerTickLatency());
+        virtualProjectileEngine.runTaskTimer(this, 1L, 1L);
+        // Landing effects run in the same tick, before the block queue that applies their fire
+        regionScheduler.runTaskTimer(this, 1L, 1L);
+        long mutationBudgetNanos = (long) (getConfig().getDouble("block-mutations.max-millis-per-tick", 2.0) * 1_000_000L);
+        blockMutationQueue = new BlockMutationQueue(mutationBudgetNanos);
+        fireExpiryWheel = new FireExpiryWheel(getConfig().getInt("fire-expiry.blocks-per-tick", 64), blockMutationQueue,
+                regionScheduler);
+        blockMutationQueue.setFireExpiry(fireExpiryWheel);
+        fireJournal = openFireJournal();
+        if (fireJournal != null) {
+            fireExpiryWheel.setJournal(fireJournal);
+            // Writing the pages back is only needed to survive a power loss, so it runs rarely and off-thread
+            FireJournal journal = fireJournal;
+            getServer().getScheduler().runTaskTimerAsynchronously(this, journal::force, 100L, 100L);
+        }
+        // Refills the expiry budget the region wheels drained during the heartbeat
+        fireExpiryWheel.runTaskTimer(this, 1L, 1L);
+        blockMutationQueue.runTaskTimer(this, 1L, 1L);
+
+        // Hazard areas are published for other plugins through the ServicesManager
+        hazardIndex = new HazardIndex();
+        regionScheduler.runGlobal(20L, 20L, hazardIndex::purgeExpired);
+        getServer().getServicesManager().register(HazardService.class, hazardIndex, this, ServicePriority.Normal);
+
+        gasCloudEngine = new GasCloudEngine(getConfig().getInt("gas-clouds.reapplication-interval-ticks", 20), hazardIndex,
+                effectsBus, regionScheduler, metrics.getEffectLatency());
+        gasCloudEngine.runTaskTimer(this, 1L, 1L);
+
+        voxelRaycaster = new VoxelRaycaster(chunkSnapshotCache);
+        blastEngine = new BlastEngine(voxelRaycaster, new BlastEngine.Settings(
+                getConfig().getDouble("grenade-blast.radius", 4.0),
+                getConfig().getDouble("grenade-blast.max-damage", 12.0),
+                getConfig().getDouble("grenade-blast.damage-falloff", 1.0),
+                getConfig().getDouble("grenade-blast.knockback", 1.0),
+                getConfig().getInt("grenade-blast.max-victims", 24)), effectsBus, metrics.getEffectLatency());
+
+        // Bulk gives (e.g., a kit for everyone at round start) are spread across ticks
+        giveQueue = new GiveQueue(getConfig().getInt("give.players-per-tick", 20));
+        giveQueue.runTaskTimer(this, 1L, 1L);
+
+        // Item uses are validated in the click event and run here, under a per-tick time budget
+        long activationBudgetNanos = (long) (getConfig().getDouble("activations.max-millis-per-tick", 5.0) * 1_000_000L);
+        activationExecutor = new ActivationExecutor(activationBudgetNanos,
+                getConfig().getInt("activations.max-queued-per-player", 4),
+                getConfig().getInt("activations.max-queued", 256),
+                metrics.getActivationLatency(), metrics.getActivationWait());
+        activationExecutor.runTaskTimer(this, 1L, 1L);
+
+        // Scheduled after the engines, so what they emit is flushed within the same tick
+        effectsBus.runTaskTimer(this, 1L, 1L);
+
+        // Everything the engines leave in a world is released through one registry: on disable,
+        // chunk unload and world unload. Queued placements go before the fire wheel that extinguishes them.
+        lifecycle = new LifecycleRegistry();
+        lifecycle.register(projectileEngine);
+        lifecycle.register(virtualProjectileEngine);
+        lifecycle.register(regionScheduler);
+        lifecycle.register(blockMutationQueue);
+        lifecycle.register(fireExpiryWheel);
+        lifecycle.register(gasCloudEngine);
+        lifecycle.register(hazardIndex);
+        lifecycle.register(effectsBus);
+
+        // Live sizes shown by /itemsbgs stats, only evaluated when read.
+        // The total should fall back to zero whenever nothing is burning or flying.
+        for (LifecycleOwner owner : lifecycle.getOwners()) {
+            metrics.registerGauge(owner.getName(), owner::getLiveCount);
+        }
+        metrics.registerGauge("live total", lifecycle::getLiveTotal);
+        metrics.registerGauge("cached snapshots", chunkSnapshotCache::size);
+        metrics.registerGauge("admitted leases", admissionController::getLiveCount);
+        metrics.registerGauge("pending gives", giveQueue::getPendingPlayers);
+        metrics.registerGauge("queued activations", activationExecutor::getPending);
+        metrics.registerGauge("deferred fire removals", fireExpiryWheel::getDeferredRemovals);
+        if (fireJournal != null) {
+            metrics.registerGauge("journaled fire", fireJournal::size);
+            metrics.registerGauge("unjournaled fire", fireExpiryWheel::getUnjournaled);
+            metrics.registerGauge("fire journal rejects", fireJournal::getRejected);
+        }
+    }
+
+    /**
+     * Rolls back the fire left behind by a crash (anything still in the journal file),
+     * then starts a new journal. The old blocks are carried into the new file until their world
+     * has been saved, so a crash before that still finds them.
+     * @return The new journal, or null if journaling is off or the file can't be opened.
+     */
+    private FireJournal openFireJournal() {
+        if (!getConfig().getBoolean("fire-journal.enabled", true)) {
+            return null;
+        }
+
+        File file = new File(getDataFolder(), FIRE_JOURNAL_FILE);
+        try {
+            List<FireJournal.Entry> live = FireJournal.readLive(file);
+            FireJournal journal = FireJournal.create(file, getConfig().getInt("fire-journal.capacity", 65536));
+            int restored = 0;
+            for (FireJournal.Entry entry : live) {
+                World world = getServer().getWorld(entry.getWorld());
+                if (world == null) {
+                    // Rolled back once the world loads, see rollBackCarriedFire
+                    journal.carry(entry);
+                } else {
+                    if (rollBackFire(world, entry)) {
+                        restored++;
+                    }
+                    journal.keepUntilSaved(entry);
+                }
+            }
+            if (restored > 0) {
+                getLogger().info("Removed " + restored + " molotov fire blocks left behind by an unclean shutdown.");
+            }
+            return journal;
+        } catch (IOException e) {
+            getLogger().warning("Could not open " + FIRE_JOURNAL_FILE + ", molotov fire won't be rolled back after a crash: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Rolls back the journaled fire of a world that wasn't loaded when the journal was opened.
+     * Called when a world loads.
+     */
+    public void rollBackCarriedFire(World world) {
+        if (fireJournal == null) {
+            return;
+        }
+        int restored = 0;
+        for (FireJournal.Entry entry : fireJournal.takeCarried(world.getUID())) {
+            if (rollBackFire(world, entry)) {
+                restored++;
+            }
+        }
+        if (restored > 0) {
+            getLogger().info("Removed " + restored + " molotov fire blocks left behind in " + world.getName() + " by an unclean shutdown.");
+        }
+    }
+
+    /**
+     * Frees the journal slots of the fire extinguished in a world before it was saved.
+     * Called when a world is saved.
+     */
+    public void onWorldSaved(World world) {
+        if (fireJournal != null) {
+            fireJournal.worldSaved(world.getUID());
+        }
+    }
+
+    /**
+     * @return true if the journaled block was still fire and was removed.
+     */
+    private boolean rollBackFire(World world, FireJournal.Entry entry) {
+        long key = entry.getBlockKey();
+        Block block = world.getBlockAt(BlockKey.unpackX(key), BlockKey.unpackY(key), BlockKey.unpackZ(key));
+        // Fire that burnt out or was replaced since is left alone
+        if (block.getType() != Material.FIRE) {
+            return false;
+        }
+        block.setType(Material.AIR, false);
+        return true;
+    }
+
+    /**
+     * Stops the engines and cleans up everything they still own.
+     */
+    private void stopEngines() {
+        if (tickMonitor != null) {
+            tickMonitor.cancel();
+        }
+        if (lifecycle == null) {
+            return;
+        }
+        projectileEngine.cancel();
+        virtualProjectileEngine.cancel();
+        regionScheduler.cancel();
+        blockMutationQueue.cancel();
+        fireExpiryWheel.cancel();
+        gasCloudEngine.cancel();
+        giveQueue.cancel();
+        effectsBus.cancel();
+        // Clicks not executed yet are dropped, before the engines they would feed are released
+        activationExecutor.cancel();
+        activationExecutor.clear();
+        // Items already promised by a give command are handed out before going down
+        giveQueue.flush();
+
+        // Don't leave projectiles, molotov fire or clouds behind in the world after a reload
+        lifecycle.releaseAll();
+        if (fireJournal != null) {
+            // Only fire that may still be on disk is left in the journal, make sure the next start sees it
+            fireJournal.force();
+        }
+        chunkSnapshotCache.clear();
+        getServer().getServicesManager().unregisterAll(this);
     }
 
     @Override
     public void onDisable() {
+        stopEngines();
         getLogger().info("ItemsBGS has been disabled!");
     }
 
@@ -56,4 +395,130 @@ public class ItemsBGS extends JavaPlugin {
     public static ItemsBGS getPlugin() {
         return plugin;
     }
+
+    /**
+     * @return The monitor that counts ticks and tracks the rolling tick time.
+     */
+    public TickMonitor getTickMonitor() {
+        return tickMonitor;
+    }
+
+    /**
+     * @return The manager of the registered custom items.
+     */
+    public ItemManager getItemManager() {
+        return itemManager;
+    }
+
+    /**
+     * @return The registry of hot-path counters and latency histograms.
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return The registry that releases everything the engines leave in a world.
+     */
+    public LifecycleRegistry getLifecycle() {
+        return lifecycle;
+    }
+
+    /**
+     * @return The controller that limits and degrades live hazards.
+     */
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    /**
+     * @return The shared engine that ticks all in-flight projectiles.
+     */
+    public ProjectileEngine getProjectileEngine() {
+        return projectileEngine;
+    }
+
+    /**
+     * @return The engine that simulates entity-free projectiles.
+     */
+    public VirtualProjectileEngine getVirtualProjectileEngine() {
+        return virtualProjectileEngine;
+    }
+
+    /**
+     * @return True if thrown items should be launched as virtual projectiles instead of item entities.
+     */
+    public boolean isVirtualProjectiles() {
+        return virtualProjectiles;
+    }
+
+    /**
+     * @return The wheel that extinguishes temporary fire blocks.
+     */
+    public FireExpiryWheel getFireExpiryWheel() {
+        return fireExpiryWheel;
+    }
+
+    /**
+     * @return The queue that applies fire placement and removal under a per-tick budget.
+     */
+    public BlockMutationQueue getBlockMutationQueue() {
+        return blockMutationQueue;
+    }
+
+    /**
+     * @return The engine that simulates tear gas clouds.
+     */
+    public GasCloudEngine getGasCloudEngine() {
+        return gasCloudEngine;
+    }
+
+    /**
+     * @return The index of active hazard areas, also registered as the HazardService.
+     */
+    public HazardIndex getHazardIndex() {
+        return hazardIndex;
+    }
+
+    /**
+     * @return The scheduler for timed work, keyed by world region.
+     */
+    public RegionScheduler getRegionScheduler() {
+        return regionScheduler;
+    }
+
+    /**
+     * @return The bus that merges and sends item sounds and particles.
+     */
+    public EffectsBus getEffectsBus() {
+        return effectsBus;
+    }
+
+    /**
+     * @return The executor that runs queued item activations.
+     */
+    public ActivationExecutor getActivationExecutor() {
+        return activationExecutor;
+    }
+
+    /**
+     * @return The queue that hands out items from the give command.
+     */
+    public GiveQueue getGiveQueue() {
+        return giveQueue;
+    }
+
+    /**
+     * @return The engine that resolves grenade blasts.
+     */
+    public BlastEngine getBlastEngine() {
+        return blastEngine;
+    }
+
+    /**
+     * @return The snapshot-based raycaster used for item targeting.
+     */
+    public VoxelRaycaster getVoxelRaycaster() {
+        return voxelRaycaster;
+    }
 }
@@ -0,0 +1,32 @@
+package me.remag501.itemsbgs.api;
+
+import org.bukkit.World;
+
+/**
+ * Read-only view of an active hazard area.
+ * Instances are owned by ItemsBGS and may be reused once the hazard ends,
+ * so don't keep references across ticks.
+ */
+public interface Hazard {
+
+    HazardType getType();
+
+    World getWorld();
+
+    double getMinX();
+
+    double getMinY();
+
+    double getMinZ();
+
+    double getMaxX();
+
+    double getMaxY();
+
+    double getMaxZ();
+
+    /**
+     * @return true if the given point lies inside the hazard.
+     */
+    boolean contains(double x, double y, double z);
+}
@@ -0,0 +1,40 @@
+package me.remag501.itemsbgs.api;
+
+import org.bukkit.World;
+
+/**
+ * Query service for active molotov fires and tear gas clouds, registered with
+ * Bukkit's ServicesManager. Lookups only touch the chunk grid cells around the
+ * queried point and never allocate.
+ *
+ * <pre>
+ * HazardService hazards = Bukkit.getServicesManager().load(HazardService.class);
+ * if (hazards != null &amp;&amp; hazards.isInHazard(world, x, y, z)) { ... }
+ * </pre>
+ *
+ * Must only be called from the main thread.
+ */
+public interface HazardService {
+
+    /**
+     * @return true if the point lies inside any active hazard.
+     */
+    boolean isInHazard(World world, double x, double y, double z);
+
+    /**
+     * @return true if the point lies inside an active hazard of the given type.
+     */
+    boolean isInHazard(World world, double x, double y, double z, HazardType type);
+
+    /**
+     * Collects the active hazards whose area comes within {@code radius} of the point.
+     * @param out Caller-owned array the hazards are written to.
+     * @return The number of hazards written, at most {@code out.length}.
+     */
+    int hazardsNear(World world, double x, double y, double z, double radius, Hazard[] out);
+
+    /**
+     * @return The number of active hazards on the server.
+     */
+    int size();
+}
@@ -0,0 +1,16 @@
+package me.remag501.itemsbgs.api;
+
+/**
+ * The kinds of area hazards created by ItemsBGS items.
+ */
+public enum HazardType {
+    /**
+     * A patch of molotov fire.
+     */
+    FIRE,
+
+    /**
+     * A tear gas cloud.
+     */
+    GAS
+}
@@ -0,0 +1,96 @@
+package me.remag501.itemsbgs.command;
+
+import me.remag501.itemsbgs.manager.ItemManager;
+import me.remag501.itemsbgs.util.PrefixTrie;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * Tab completion suggestions for /itemsbgs, kept in prefix tries.
+ * Player names and worlds are added and removed as players join and quit and worlds load
+ * and unload (see CompletionListener); item IDs and kits are rebuilt when the registered items change.
+ * Completing only walks the typed prefix and returns a shared immutable list.
+ * Must only be used from the main thread.
+ */
+public class CompletionIndex {
+
+    private static final List<String> SUBCOMMANDS = List.of("give", "stats", "reload", "help");
+    private static final List<String> STATS_OPTIONS = List.of("reset");
+    private static final String KIT_PREFIX = "kit:";
+
+    private final ItemManager itemManager;
+    private final PrefixTrie subcommands = new PrefixTrie();
+    private final PrefixTrie statsOptions = new PrefixTrie();
+    // Selectors and online player names
+    private final PrefixTrie targets = new PrefixTrie();
+    // Item IDs and kit:<name>
+    private final PrefixTrie itemIds = new PrefixTrie();
+    private int itemGeneration = -1;
+
+    public CompletionIndex(ItemManager itemManager) {
+        this.itemManager = itemManager;
+        SUBCOMMANDS.forEach(subcommands::add);
+        STATS_OPTIONS.forEach(statsOptions::add);
+
+        targets.add(TargetSelector.ALL);
+        targets.add(TargetSelector.PERMISSION_PREFIX);
+        for (World world : Bukkit.getWorlds()) {
+            addWorld(world.getName());
+        }
+        // Players already online when the plugin is (re)loaded
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            addPlayer(player.getName());
+        }
+    }
+
+    public void addPlayer(String name) {
+        targets.add(name);
+    }
+
+    public void removePlayer(String name) {
+        targets.remove(name);
+    }
+
+    public void addWorld(String name) {
+        targets.add(TargetSelector.WORLD_PREFIX + name);
+    }
+
+    public void removeWorld(String name) {
+        targets.remove(TargetSelector.WORLD_PREFIX + name);
+    }
+
+    public List<String> completeSubcommand(String prefix) {
+        return subcommands.complete(prefix);
+    }
+
+    public List<String> completeStatsOption(String prefix) {
+        return statsOptions.complete(prefix);
+    }
+
+    /**
+     * @return Selectors and online player names starting with the prefix.
+     */
+    public List<String> completeTarget(String prefix) {
+        return targets.complete(prefix);
+    }
+
+    /**
+     * @return Item IDs and kits starting with the prefix.
+     */
+    public List<String> completeItem(String prefix) {
+        int generation = itemManager.getGeneration();
+        if (generation != itemGeneration) {
+            // The items were (re)loaded: a handful of IDs, so the trie is simply rebuilt
+            itemIds.clear();
+            itemManager.getRegisteredIds().forEach(itemIds::add);
+            for (String kitName : itemManager.getKitNames()) {
+                itemIds.add(KIT_PREFIX + kitName);
+            }
+            itemGeneration = generation;
+        }
+        return itemIds.complete(prefix);
+    }
+}
@@ -1,7 +1,9 @@
 package me.remag501.itemsbgs.command;
 
+import me.remag501.itemsbgs.ItemsBGS;
 import me.remag501.itemsbgs.manager.ItemManager;
-import org.bukkit.Bukkit;
+import me.remag501.itemsbgs.metrics.LatencyHistogram;
+import me.remag501.itemsbgs.metrics.MetricsRegistry;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -9,26 +11,46 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
- * Handles the main /itemsbgs command and its subcommands (like 'give').
+ * Handles the main /itemsbgs command and its subcommands (like 'give', 'stats' and 'reload').
  */
 public class ItemsBGSCommand implements CommandExecutor, TabCompleter {
 
+    private static final String KIT_PREFIX = "kit:";
+    // A kit count, not an item amount: each kit is already several stacks
+    private static final int MAX_KIT_COUNT = 64;
+    // A full inventory (36 slots of 64), anything beyond that would only be dropped at the player's feet
+    private static final int MAX_ITEM_AMOUNT = 36 * 64;
+    private static final List<String> AMOUNT_SUGGESTIONS = List.of("1", "5", "16", "64", "128");
+
+    private final ItemsBGS plugin;
     private final ItemManager itemManager;
+    private final MetricsRegistry metrics;
+    private final CompletionIndex completionIndex;
 
-    public ItemsBGSCommand(ItemManager itemManager) {
+    public ItemsBGSCommand(ItemsBGS plugin, ItemManager itemManager, MetricsRegistry metrics, CompletionIndex completionIndex) {
+        this.plugin = plugin;
         this.itemManager = itemManager;
+        this.metrics = metrics;
+        this.completionIndex = completionIndex;
     }
 
     private void sendUsage(CommandSender sender) {
         sender.sendMessage("§a--- ItemsBGS Command Help ---");
-        sender.sendMessage("§e/itemsbgs give <player> <item_id> [amount]");
+        sender.sendMessage("§e/itemsbgs give <player|@a|@world:<name>|@perm:<node>> <item_id|kit:<name>> [amount]");
         sender.sendMessage("§7Example: /itemsbgs give Remag501 grenade 5");
+        sender.sendMessage("§7Example: /itemsbgs give @a kit:riot");
+        sender.sendMessage("§e/itemsbgs stats [reset]");
+        sender.sendMessage("§e/itemsbgs reload");
         sender.sendMessage("§7Available items: " + String.join(", ", itemManager.getRegisteredIds()));
+        sender.sendMessage("§7Available kits: " + String.join(", ", itemManager.getKitNames()));
     }
 
     @Override
@@ -42,8 +64,12 @@ public class ItemsBGSCommand implements CommandExecutor, TabCompleter {
 
         if (subCommand.equals("give")) {
             return handleGiveCommand(sender, args);
+        } else if (subCommand.equals("stats")) {
+            return handleStatsCommand(sender, args);
+        } else if (subCommand.equals("reload")) {
+            return handleReloadCommand(sender);
         } else {
-            sender.sendMessage("§cUnknown subcommand. Use /itemsbgs help or /itemsbgs give.");
+            sender.sendMessage("§cUnknown subcommand. Use /itemsbgs help, /itemsbgs give, /itemsbgs stats or /itemsbgs reload.");
             return true;
         }
     }
@@ -55,79 +81,150 @@ public class ItemsBGSCommand implements CommandExecutor, TabCompleter {
         }
 
         if (args.length < 3) {
-            sender.sendMessage("§cUsage: /itemsbgs give <player> <item_id> [amount]");
+            sender.sendMessage("§cUsage: /itemsbgs give <player|@a|@world:<name>|@perm:<node>> <item_id|kit:<name>> [amount]");
             return true;
         }
 
-        // Parse player, item, and amount
-        Player targetPlayer = Bukkit.getPlayer(args[1]);
+        // Parse targets, item (or kit), and amount
+        Collection<? extends Player> targets = TargetSelector.resolve(args[1]);
         String itemId = args[2].toLowerCase();
+        boolean kit = itemId.startsWith(KIT_PREFIX);
+        int maxAmount = kit ? MAX_KIT_COUNT : MAX_ITEM_AMOUNT;
         int amount = 1;
 
-        if (targetPlayer == null) {
-            sender.sendMessage("§cPlayer '" + args[1] + "' not found or offline.");
+        if (targets == null) {
+            sender.sendMessage("§cPlayer or world '" + args[1] + "' not found or offline.");
+            return true;
+        }
+        if (targets.isEmpty()) {
+            sender.sendMessage("§cNo online players match '" + args[1] + "'.");
             return true;
         }
 
         if (args.length >= 4) {
             try {
                 amount = Integer.parseInt(args[3]);
-                amount = Math.max(1, Math.min(64, amount)); // Clamp amount
+                amount = Math.max(1, Math.min(maxAmount, amount)); // Clamp amount
             } catch (NumberFormatException e) {
                 sender.sendMessage("§cInvalid amount specified. Defaulting to 1.");
             }
         }
 
-        // Create and give the item
-        ItemStack itemToGive = itemManager.createItemStack(itemId, amount);
-
-        if (itemToGive != null) {
-            targetPlayer.getInventory().addItem(itemToGive);
-            if(sender.getName() == "CONSOLE")
-                targetPlayer.sendMessage("§6§lITEMS §8» §7You received " + amount + " " + itemId + ".");
-            else
-                targetPlayer.sendMessage("§6§lITEMS §8» §7You received " + amount + " " + itemId + " from " + sender.getName() + ".");
-
-            if (!sender.equals(targetPlayer)) {
-                sender.sendMessage("§aSuccessfully gave §b" + amount + " " + itemId + "§a to " + targetPlayer.getName() + ".");
+        // Build the stacks once from the templates, every target gets clones of them
+        List<ItemStack> stacks;
+        String description;
+        if (kit) {
+            String kitName = itemId.substring(KIT_PREFIX.length());
+            Map<String, Integer> contents = itemManager.getKit(kitName);
+            if (contents == null) {
+                sender.sendMessage("§cUnknown kit: " + kitName + ". Use one of: " + String.join(", ", itemManager.getKitNames()));
+                return true;
+            }
+            Map<String, Integer> amounts = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : contents.entrySet()) {
+                // Many kits of a big entry would still drop thousands of items, so each item is capped too
+                amounts.put(entry.getKey(), Math.min(MAX_ITEM_AMOUNT, entry.getValue() * amount));
             }
+            stacks = itemManager.createItemStacks(amounts);
+            description = (amount == 1 ? "" : amount + "x ") + "kit " + kitName;
         } else {
-            sender.sendMessage("§cInvalid item ID: " + itemId + ". Use one of: " + String.join(", ", itemManager.getRegisteredIds()));
+            stacks = itemManager.createItemStacks(itemId, amount);
+            if (stacks == null) {
+                sender.sendMessage("§cInvalid item ID: " + itemId + ". Use one of: " + String.join(", ", itemManager.getRegisteredIds()));
+                return true;
+            }
+            description = amount + " " + itemId;
+        }
+
+        // Delivered over the next ticks, the sender is told when everyone has their items
+        plugin.getGiveQueue().enqueue(targets, stacks, description, sender);
+        return true;
+    }
+
+    private boolean handleStatsCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("itemsbgs.stats")) {
+            sender.sendMessage("§cYou do not have permission to use the 'stats' command.");
+            return true;
+        }
+
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage("§aItemsBGS counters and latency histograms have been reset.");
+            return true;
         }
 
+        sender.sendMessage("§a--- ItemsBGS Stats ---");
+        sender.sendMessage("§eActivations: §7" + formatCounters(metrics.getActivations()));
+        sender.sendMessage("§eRejects: §7" + formatCounters(metrics.getRejects()));
+        sender.sendMessage("§eLive: §7" + formatCounters(metrics.getGauges()));
+        sender.sendMessage("§eLatency §7(p50 / p99 / max, samples):");
+        for (LatencyHistogram histogram : metrics.getHistograms()) {
+            sender.sendMessage("§7 " + histogram.getName() + ": §f"
+                    + formatNanos(histogram.getPercentileNanos(0.5)) + " / "
+                    + formatNanos(histogram.getPercentileNanos(0.99)) + " / "
+                    + formatNanos(histogram.getMaxNanos()) + "§7, " + histogram.getCount());
+        }
+        return true;
+    }
+
+    private boolean handleReloadCommand(CommandSender sender) {
+        if (!sender.hasPermission("itemsbgs.reload")) {
+            sender.sendMessage("§cYou do not have permission to use the 'reload' command.");
+            return true;
+        }
+
+        // Parsing happens off the main thread, the outcome is reported when the new items are in use
+        sender.sendMessage("§7Reloading items.yml...");
+        plugin.reloadItems(sender);
         return true;
     }
 
+    private static String formatCounters(Map<String, ? extends Number> counters) {
+        if (counters.isEmpty()) {
+            return "none";
+        }
+        return counters.entrySet().stream()
+                .map(entry -> entry.getKey().toLowerCase(Locale.ROOT) + "=" + entry.getValue())
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fµs", nanos / 1_000.0);
+        }
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String label, String[] args) {
+        // Every suggestion list comes precomputed from the completion index, nothing is filtered here
         if (args.length == 1) {
             // Suggest subcommands
-            return List.of("give", "help").stream()
-                    .filter(s -> s.startsWith(args[0].toLowerCase()))
-                    .collect(Collectors.toList());
+            return completionIndex.completeSubcommand(args[0]);
         }
 
         if (args[0].equalsIgnoreCase("give") && sender.hasPermission("itemsbgs.give")) {
             if (args.length == 2) {
-                // Suggest online players
-                return Bukkit.getOnlinePlayers().stream()
-                        .map(Player::getName)
-                        .filter(name -> name.startsWith(args[1]))
-                        .collect(Collectors.toList());
+                // Suggest selectors and online players
+                return completionIndex.completeTarget(args[1]);
             }
             if (args.length == 3) {
-                // Suggest item IDs
-                String partialId = args[2].toLowerCase();
-                return itemManager.getRegisteredIds().stream()
-                        .filter(id -> id.startsWith(partialId))
-                        .collect(Collectors.toList());
+                // Suggest item IDs and kits
+                return completionIndex.completeItem(args[2]);
             }
             if (args.length == 4) {
                 // Suggest quantity
-                return List.of("1", "5", "16", "64");
+                return AMOUNT_SUGGESTIONS;
             }
         }
 
-        return new ArrayList<>();
+        if (args[0].equalsIgnoreCase("stats") && sender.hasPermission("itemsbgs.stats") && args.length == 2) {
+            return completionIndex.completeStatsOption(args[1]);
+        }
+
+        return List.of();
     }
 }
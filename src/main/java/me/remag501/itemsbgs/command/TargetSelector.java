@@ -0,0 +1,58 @@
+package me.remag501.itemsbgs.command;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Resolves the target argument of commands to online players.
+ * Accepts a player name or one of the selectors:
+ * {@code @a} (everyone online), {@code @world:<name>} (everyone in a world)
+ * and {@code @perm:<node>} (everyone with a permission, e.g., a group's permission).
+ */
+public final class TargetSelector {
+
+    public static final String ALL = "@a";
+    public static final String WORLD_PREFIX = "@world:";
+    public static final String PERMISSION_PREFIX = "@perm:";
+
+    private TargetSelector() {
+    }
+
+    /**
+     * @param selector A player name or selector.
+     * @return The matching online players (possibly none), or null if the selector is invalid
+     *         (unknown player or world).
+     */
+    public static Collection<? extends Player> resolve(String selector) {
+        if (selector.equalsIgnoreCase(ALL)) {
+            return new ArrayList<>(Bukkit.getOnlinePlayers());
+        }
+
+        String lower = selector.toLowerCase();
+        if (lower.startsWith(WORLD_PREFIX)) {
+            World world = Bukkit.getWorld(selector.substring(WORLD_PREFIX.length()));
+            return world == null ? null : world.getPlayers();
+        }
+        if (lower.startsWith(PERMISSION_PREFIX)) {
+            String permission = selector.substring(PERMISSION_PREFIX.length());
+            if (permission.isEmpty()) {
+                return null;
+            }
+            List<Player> players = new ArrayList<>();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (player.hasPermission(permission)) {
+                    players.add(player);
+                }
+            }
+            return players;
+        }
+
+        Player player = Bukkit.getPlayer(selector);
+        return player == null ? null : List.of(player);
+    }
+}
@@ -1,61 +1,94 @@
 package me.remag501.itemsbgs.item;
 
-import org.bukkit.Bukkit;
+import me.remag501.itemsbgs.ItemsBGS;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.Material;
-import org.bukkit.block.Block;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Provides a base implementation for ProjectileItem.
- * All items extending this class will automatically get a default 20-block
- * ray-trace targeting system. This removes redundant targeting code from child classes.
+ * All items extending this class will automatically get a ray-trace targeting system
+ * (50 blocks unless items.yml says otherwise) and take their ID, stack and cooldown from
+ * their ItemSpec. This removes redundant targeting code from child classes.
  */
 public abstract class AbstractTargetingItem implements ProjectileItem {
 
-    // Define the common default range here
-    protected int defaultRange;
+    // By default the ray only passes through air, like getTargetBlock(null, range)
+    protected static final Set<Material> AIR_MATERIALS =
+            Collections.unmodifiableSet(EnumSet.of(Material.AIR, Material.CAVE_AIR, Material.VOID_AIR));
+
+    // Range used when an item doesn't define one
+    public static final int DEFAULT_RANGE = 50;
+
+    // Shared properties compiled from items.yml (ID, stack appearance, range, cooldown)
+    protected final ItemSpec spec;
+
+    // Targeting range in blocks
+    protected final int defaultRange;
+
+    // Materials the targeting ray passes through
+    protected final Set<Material> passableMaterials;
+
+    protected AbstractTargetingItem(ItemSpec spec) {
+        this(spec, AIR_MATERIALS);
+    }
+
+    protected AbstractTargetingItem(ItemSpec spec, Set<Material> passableMaterials) {
+        this.spec = spec;
+        this.defaultRange = spec.getRange();
+        this.passableMaterials = passableMaterials;
+    }
+
+    @Override
+    public String getId() {
+        return spec.getId();
+    }
+
+    @Override
+    public ItemStack getItem(int amount) {
+        return spec.createStack(amount);
+    }
 
-    protected AbstractTargetingItem() {
-        this.defaultRange = 50;
+    @Override
+    public int getCooldownTicks() {
+        return spec.getCooldownTicks();
     }
 
-    protected AbstractTargetingItem(int defaultRange) {
-        this.defaultRange = defaultRange;
+    @Override
+    public int getCooldownBurst() {
+        return spec.getCooldownBurst();
     }
 
     /**
      * Implements the preferred calculation: a simple ray-trace to find the targeted block.
+     * The ray reads cached chunk snapshots, so it never loads chunks and is safe to run off the main thread.
      * This method is automatically inherited by all items extending this class.
      */
-
     @Override
     public Location getActivationLocation(Player player) {
-        // Find the block the player is looking at within the default range.
-        // The second argument in getTargetBlock is maxDistance (range)
-        Block targetBlock = player.getTargetBlock(null, defaultRange);
+        Location eyeLocation = player.getEyeLocation();
 
-        defaultRange = 50;
+        // Find the block the player is looking at within the default range.
+        Location targetBlock = ItemsBGS.getPlugin().getVoxelRaycaster()
+                .cast(eyeLocation, eyeLocation.getDirection(), defaultRange, passableMaterials);
 
         if (targetBlock == null) {
-            // Return null if no valid solid block is targeted
+            // Return null if the ray ran into an unloaded chunk
             return null;
         }
 
         // Return the center location of the targeted block
-        return targetBlock.getLocation().add(0.5, 0.5, 0.5);
+        return targetBlock.add(0.5, 0.5, 0.5);
     }
 
     // --- Abstract methods required by CustomItem/ProjectileItem ---
 
-    @Override
-    public abstract String getId();
-
-    @Override
-    public abstract ItemStack getItem(int amount);
-
     /**
      * Abstract method required for the projectile execution phase.
      */
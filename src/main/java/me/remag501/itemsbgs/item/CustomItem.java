@@ -24,4 +24,18 @@ public interface CustomItem {
      * @param plugin The main plugin instance for scheduling tasks.
      */
     void onActivate(Player activator, Plugin plugin);
+
+    /**
+     * @return Ticks a player has to wait between two uses of this item (0 = no cooldown).
+     */
+    default int getCooldownTicks() {
+        return 0;
+    }
+
+    /**
+     * @return How many uses a player can make back to back before the cooldown applies.
+     */
+    default int getCooldownBurst() {
+        return 1;
+    }
 }
@@ -1,14 +1,13 @@
 package me.remag501.itemsbgs.item;
 
+import me.remag501.itemsbgs.ItemsBGS;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.Plugin;
 
-import java.util.Arrays;
+import java.util.List;
 
 /**
  * Concrete implementation of the Frag Grenade item.
@@ -16,30 +15,26 @@ import java.util.Arrays;
  */
 public class GrenadeItem extends AbstractTargetingItem {
 
-    private static final String ID = "grenade";
-
-    @Override
-    public String getId() {
-        return ID;
+    public static final String TYPE = "grenade";
+    private static final int COOLDOWN_TICKS = 10; // Two grenades per second
+
+    // Grenades use COBBLESTONE for their appearance
+    public static final ItemSpec DEFAULT_SPEC = new ItemSpec(TYPE, TYPE, Material.COBBLESTONE,
+            "§b§lFrag Grenade",
+            List.of(
+                    "§7A simple timed explosive that",
+                    "§7causes a small, non-destructive blast.",
+                    "",
+                    "§bRight-click to use." // Consistent with Molotov and new listener
+            ),
+            DEFAULT_RANGE, COOLDOWN_TICKS, 1);
+
+    public GrenadeItem() {
+        this(DEFAULT_SPEC);
     }
 
-    @Override
-    public ItemStack getItem(int amount) {
-        // Grenades use COBBLESTONE for their appearance
-        ItemStack item = new ItemStack(Material.COBBLESTONE, amount);
-        ItemMeta meta = item.getItemMeta();
-
-        meta.setDisplayName("§b§lFrag Grenade");
-        meta.setLore(Arrays.asList(
-                "§7A simple timed explosive that",
-                "§7causes a small, non-destructive blast.",
-                "",
-                "§bRight-click to use." // Consistent with Molotov and new listener
-        ));
-
-        // The manager handles setting the PersistentDataContainer ID
-        item.setItemMeta(meta);
-        return item;
+    public GrenadeItem(ItemSpec spec) {
+        super(spec);
     }
 
     /**
@@ -51,9 +46,9 @@ public class GrenadeItem extends AbstractTargetingItem {
         activator.sendMessage("§bGrenade thrown!");
 
         // Play a small explosion sound
-        targetLocation.getWorld().playSound(targetLocation, Sound.ENTITY_GENERIC_EXPLODE, 3.0F, 1.5F);
+        ItemsBGS.getPlugin().getEffectsBus().playSound(targetLocation, Sound.ENTITY_GENERIC_EXPLODE, 3.0F, 1.5F);
 
-        // Create a non-destructive explosion (power 2.0F, setFire: false, breakBlocks: false)
-        targetLocation.getWorld().createExplosion(targetLocation, 2.0F, false, false);
+        // Non-destructive blast handled by the plugin's blast engine instead of a vanilla explosion
+        ItemsBGS.getPlugin().getBlastEngine().detonate(targetLocation);
     }
 }
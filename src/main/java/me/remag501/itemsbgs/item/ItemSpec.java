@@ -0,0 +1,91 @@
+package me.remag501.itemsbgs.item;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The immutable, already validated properties every custom item has, compiled from items.yml.
+ */
+public final class ItemSpec {
+
+    private final String id;
+    private final String type;
+    private final Material material;
+    private final String displayName;
+    private final List<String> lore;
+    private final int range;
+    private final int cooldownTicks;
+    private final int cooldownBurst;
+
+    /**
+     * @param id Unique item ID (e.g., "molotov").
+     * @param type The behavior this item uses (e.g., "molotov"), several IDs can share one.
+     * @param material Material of the item stack.
+     * @param displayName Display name with color codes already translated.
+     * @param lore Lore lines with color codes already translated.
+     * @param range Targeting range in blocks.
+     * @param cooldownTicks Ticks between two uses by the same player (0 = no cooldown).
+     * @param cooldownBurst Uses a player can make back to back before the cooldown applies.
+     */
+    public ItemSpec(String id, String type, Material material, String displayName, List<String> lore,
+                    int range, int cooldownTicks, int cooldownBurst) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.type = Objects.requireNonNull(type, "type");
+        this.material = Objects.requireNonNull(material, "material");
+        this.displayName = Objects.requireNonNull(displayName, "displayName");
+        this.lore = List.copyOf(lore);
+        this.range = range;
+        this.cooldownTicks = cooldownTicks;
+        this.cooldownBurst = cooldownBurst;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Material getMaterial() {
+        return material;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public List<String> getLore() {
+        return lore;
+    }
+
+    public int getRange() {
+        return range;
+    }
+
+    public int getCooldownTicks() {
+        return cooldownTicks;
+    }
+
+    public int getCooldownBurst() {
+        return cooldownBurst;
+    }
+
+    /**
+     * Builds a stack with this spec's material, display name and lore.
+     */
+    public ItemStack createStack(int amount) {
+        ItemStack item = new ItemStack(material, amount);
+        ItemMeta meta = item.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(displayName);
+            meta.setLore(lore);
+            item.setItemMeta(meta);
+        }
+        return item;
+    }
+}
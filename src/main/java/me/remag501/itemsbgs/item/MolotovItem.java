@@ -1,31 +1,30 @@
 package me.remag501.itemsbgs.item;
 
 import me.remag501.itemsbgs.ItemsBGS;
+import me.remag501.itemsbgs.api.HazardType;
+import me.remag501.itemsbgs.runnable.LandingHandler;
 import org.bukkit.Color;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.Particle;
 import org.bukkit.Sound;
-import org.bukkit.block.Block;
+import org.bukkit.World;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.PotionMeta;
-import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 /**
  * Concrete implementation of the Molotov Cocktail item.
  */
 public class MolotovItem extends AbstractTargetingItem {
 
-    private static final String ID = "molotov";
+    public static final String TYPE = "molotov";
+    private static final int COOLDOWN_TICKS = 20; // One molotov per second
     private static final int FIRE_RADIUS = 2; // For a 5x5 area
     private static final int FIRE_DURATION_TICKS = 3 * 20; // 3 seconds
 
@@ -36,29 +35,40 @@ public class MolotovItem extends AbstractTargetingItem {
     // NEW LOGIC CONSTANT: Ticks to wait after landing before final proc
     private static final int PROC_DELAY_TICKS = 2;
 
-    // Define the unique key for the metadata tag
-    public static final String METADATA_KEY = "MOLOTOV_PROJECTILE";
+    // Max flight time before forced activation (e.g., 3 seconds stuck in a weird spot)
+    private static final int FAILSAFE_DESPAWN_TICKS = 60;
 
-    @Override
-    public String getId() {
-        return ID;
+    // Used for anything items.yml leaves out
+    public static final ItemSpec DEFAULT_SPEC = new ItemSpec(TYPE, TYPE, Material.REDSTONE_TORCH,
+            "§6§lMolotov §6Cocktail §e✪✪✪",
+            List.of(
+                    "§8• §fA crude explosive that causes",
+                    "§fa short-lived patch of fire.",
+                    "§r",
+                    "§7§o(( Right-click to use. ))"
+            ),
+            DEFAULT_RANGE, COOLDOWN_TICKS, 1);
+
+    private final Settings settings;
+
+    // Shared landing rules for every molotov, ticked by the ProjectileEngine
+    private final MolotovLandingHandler landingHandler = new MolotovLandingHandler();
+
+    public MolotovItem() {
+        this(DEFAULT_SPEC, Settings.DEFAULTS);
     }
 
+    public MolotovItem(ItemSpec spec, Settings settings) {
+        super(spec);
+        this.settings = settings;
+    }
+
+    /**
+     * Flight time plus the time the fire burns.
+     */
     @Override
-    public ItemStack getItem(int amount) {
-        ItemStack item = new ItemStack(Material.REDSTONE_TORCH, amount);
-        ItemMeta meta = item.getItemMeta();
-
-        meta.setDisplayName("§6§lMolotov §6Cocktail §e✪✪✪");
-        meta.setLore(Arrays.asList(
-                "§8• §fA crude explosive that causes",
-                "§fa short-lived patch of fire.",
-                "§r",
-                "§7§o(( Right-click to use. ))"
-        ));
-
-        item.setItemMeta(meta);
-        return item;
+    public int getHazardLifetimeTicks() {
+        return settings.failsafeTicks + settings.fireDurationTicks;
     }
 
     /**
@@ -69,6 +79,15 @@ public class MolotovItem extends AbstractTargetingItem {
         activator.sendMessage("§a§l(!) §aMolotov thrown!");
 
         Location eyeLoc = activator.getEyeLocation();
+        Vector velocity = targetLocation.toVector().subtract(eyeLoc.toVector());
+        velocity.normalize().multiply(1.5);
+        velocity.setY(velocity.getY() + 0.3);
+
+        // Virtual mode: no entity at all, the flight is simulated and shown as a flame trail
+        if (ItemsBGS.getPlugin().isVirtualProjectiles()) {
+            ItemsBGS.getPlugin().getVirtualProjectileEngine().launch(eyeLoc, velocity, landingHandler, Particle.FLAME);
+            return;
+        }
 
         // 1. Create the item to be "thrown"
         ItemStack torchStack = new ItemStack(Material.SPLASH_POTION);
@@ -87,107 +106,139 @@ public class MolotovItem extends AbstractTargetingItem {
         molotovItem.setPickupDelay(32767); // Max pickup delay
 
         // 3. Apply the velocity
-        Vector velocity = targetLocation.toVector().subtract(eyeLoc.toVector());
-        velocity.normalize().multiply(1.5);
-        velocity.setY(velocity.getY() + 0.3);
         molotovItem.setVelocity(velocity);
 
-        // 4. TAG THE ITEM with metadata
-        molotovItem.setMetadata(METADATA_KEY, new FixedMetadataValue(plugin, true));
+        // 4. Never save it with its chunk. The ProjectileEngine is its only owner, no metadata tag
+        // is needed (Bukkit would keep one for the entity's UUID until the plugin is disabled)
+        molotovItem.setPersistent(false);
 
-        // 5. START THE NEW TRACKING TASK
-        new MolotovTracker(molotovItem).runTaskTimer(plugin, 1L, 1L);
+        // 5. HAND THE ITEM TO THE PROJECTILE ENGINE
+        ItemsBGS.getPlugin().getProjectileEngine().track(molotovItem, landingHandler);
     }
 
     /**
      * The core logic for the Molotov's effect.
      */
-    private void activateMolotov(Item molotovItem) {
-        Location location = molotovItem.getLocation();
-
+    private void activateMolotov(Location location) {
         // 1. Play the explosion/shatter effect
-        location.getWorld().playSound(location, Sound.BLOCK_GLASS_BREAK, 1.0f, 1.5f);
-
-        // 2. Create the fire effect
-        for (int x = -FIRE_RADIUS; x <= FIRE_RADIUS; x++) {
-            for (int z = -FIRE_RADIUS; z <= FIRE_RADIUS; z++) {
-                Block blockBelow = location.clone().add(x, -1, z).getBlock();
-                Block fireBlock = blockBelow.getRelative(0, 1, 0);
-
-                // Check if the block below is solid and the block for fire is air
-                if (blockBelow.getType().isSolid() && fireBlock.getType() == Material.AIR) {
-                    fireBlock.setType(Material.FIRE);
-
-                    // Schedule the fire to be extinguished
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            if (fireBlock.getType() == Material.FIRE) {
-                                fireBlock.setType(Material.AIR);
-                            }
-                        }
-                    }.runTaskLater(ItemsBGS.getPlugin(), FIRE_DURATION_TICKS);
-                }
-            }
-        }
-
-        // 3. Remove the item entity
-        molotovItem.remove();
+        ItemsBGS.getPlugin().getEffectsBus().playSound(location, Sound.BLOCK_GLASS_BREAK, 1.0f, 1.5f);
+
+        // 2. Queue the fire effect. The queue checks for a solid block below and air at each cell,
+        // then places the fire over the next ticks without physics updates.
+        // The footprint shrinks when the server is busy
+        int fireRadius = ItemsBGS.getPlugin().getAdmissionController().getFireRadius(settings.fireRadius);
+        World world = location.getWorld();
+        int centerX = location.getBlockX();
+        int fireY = location.getBlockY();
+        int centerZ = location.getBlockZ();
+        ItemsBGS.getPlugin().getBlockMutationQueue().placeFireSquare(world, centerX, fireY, centerZ, fireRadius, settings.fireDurationTicks);
+
+        // 3. Publish the burning area for other plugins (expires with the fire)
+        ItemsBGS.getPlugin().getHazardIndex().addBox(HazardType.FIRE, world,
+                centerX - fireRadius, fireY, centerZ - fireRadius,
+                centerX + fireRadius + 1, fireY + 1, centerZ + fireRadius + 1,
+                world.getGameTime() + settings.fireDurationTicks);
     }
 
     /**
-     * A repeating task to track the state of the Molotov Item entity.
-     * It uses a combination of low velocity and age to ensure the projectile
+     * Landing rules for the Molotov Item entity.
+     * It uses a combination of age and the block below to ensure the projectile
      * has settled and stopped moving before activating.
      */
-    private class MolotovTracker extends BukkitRunnable {
+    private class MolotovLandingHandler implements LandingHandler {
 
-        private final Item item;
-        private int ticksStationary = 0;
+        @Override
+        public int getActivationTicksThreshold() {
+            return settings.activationTicks;
+        }
+
+        @Override
+        public int getProcDelayTicks() {
+            return settings.procDelayTicks;
+        }
 
-        public MolotovTracker(Item item) {
-            this.item = item;
+        @Override
+        public int getFailsafeTicks() {
+            return settings.failsafeTicks;
         }
 
+        /**
+         * The molotov shatters on its first ground contact, it doesn't need to stop sliding.
+         */
         @Override
-        public void run() {
-            // Check if the item is no longer valid
-            if (!item.isValid()) {
-                this.cancel();
-                return;
-            }
-
-            // Primary check: Has the item lived long enough to complete its flight arc?
-            if (item.getTicksLived() < ACTIVATION_TICKS_THRESHOLD) {
-                return;
-            }
-
-            // Secondary check: Is the item effectively stationary?
-            // This is the check that was problematic, but is now more reliable due to the age gate.
-            // Check for near-zero velocity. 0.005 is a standard low-velocity threshold.
-            if (!item.getLocation().subtract(0,1,0).getBlock().getType().isAir()) {
-                ticksStationary++;
-            } else {
-                // If it's moving fast, reset the counter
-                ticksStationary = 0;
-            }
-
-            // Final check: Has it been stationary for the required delay?
-            if (ticksStationary >= PROC_DELAY_TICKS) {
-                // To prevent activation while bouncing, we add one last check for low velocity
-                // and if it's currently on a solid block (or water, which also stops item movement)
-                if (item.isOnGround() || item.isInWater()) {
-                    activateMolotov(item);
-                    this.cancel(); // Stop the task after activation
-                }
-            }
-
-            // FAILSAFE: Remove the item if it lives too long (e.g., gets stuck in a wall)
-            // Default despawn is 6000 ticks (5 minutes), but we can make this shorter.
-            if (item.getTicksLived() > 60) { // e.g., 3 seconds stuck in a weird spot
-                activateMolotov(item); // Proc it anyway or just remove it
-                this.cancel();
-            }
+        public double getRestSpeedSquared() {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * The item counts as stationary while it rests on a non-air block.
+         */
+        @Override
+        public boolean isStationary(Item item) {
+            return !item.getLocation().subtract(0, 1, 0).getBlock().getType().isAir();
+        }
+
+        /**
+         * To prevent activation while bouncing, it must be on a solid block
+         * (or water, which also stops item movement).
+         */
+        @Override
+        public boolean hasSettled(Item item) {
+            return item.isOnGround() || item.isInWater();
+        }
+
+        @Override
+        public void onLand(Location location) {
+            activateMolotov(location);
+        }
+    }
+
+    /**
+     * Tunable molotov parameters.
+     */
+    public static final class Settings {
+        public static final Settings DEFAULTS = new Settings(FIRE_RADIUS, FIRE_DURATION_TICKS,
+                ACTIVATION_TICKS_THRESHOLD, PROC_DELAY_TICKS, FAILSAFE_DESPAWN_TICKS);
+
+        private final int fireRadius;
+        private final int fireDurationTicks;
+        private final int activationTicks;
+        private final int procDelayTicks;
+        private final int failsafeTicks;
+
+        /**
+         * @param fireRadius Fire cells on each side of the landing block (2 = a 5x5 area).
+         * @param fireDurationTicks How long the fire burns.
+         * @param activationTicks Minimum flight time before the molotov can land.
+         * @param procDelayTicks Ticks the molotov has to rest before it shatters.
+         * @param failsafeTicks Flight time after which it shatters wherever it is.
+         */
+        public Settings(int fireRadius, int fireDurationTicks, int activationTicks, int procDelayTicks, int failsafeTicks) {
+            this.fireRadius = fireRadius;
+            this.fireDurationTicks = fireDurationTicks;
+            this.activationTicks = activationTicks;
+            this.procDelayTicks = procDelayTicks;
+            this.failsafeTicks = failsafeTicks;
+        }
+
+        public int getFireRadius() {
+            return fireRadius;
+        }
+
+        public int getFireDurationTicks() {
+            return fireDurationTicks;
+        }
+
+        public int getActivationTicks() {
+            return activationTicks;
+        }
+
+        public int getProcDelayTicks() {
+            return procDelayTicks;
+        }
+
+        public int getFailsafeTicks() {
+            return failsafeTicks;
         }
     }
-}
\ No newline at end of file
+}
@@ -40,4 +40,13 @@ public interface ProjectileItem extends CustomItem {
      * @param plugin The main plugin instance for scheduling tasks.
      */
     void onThrow(Player player, Location targetLocation, Plugin plugin);
+
+    /**
+     * How long the hazard created by one throw stays live, from the throw until the effect ends.
+     * Used by the admission controller to count live hazards per player, chunk and world.
+     * @return The lifetime in ticks. Defaults to one second for instant effects.
+     */
+    default int getHazardLifetimeTicks() {
+        return 20;
+    }
 }
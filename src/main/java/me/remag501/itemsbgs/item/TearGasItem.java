@@ -1,67 +1,105 @@
 package me.remag501.itemsbgs.item;
 
+import me.remag501.itemsbgs.ItemsBGS;
 import me.remag501.itemsbgs.runnable.TearGasTracker;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.Particle;
 import org.bukkit.Sound; // Added for throw sound
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.util.Vector;
 
-import java.util.Arrays;
+import java.util.List;
 
 /**
  * Concrete implementation of the Tear Gas item.
- * Throws a custom Item entity that spawns an AreaEffectCloud on impact.
+ * Throws a custom Item entity that spawns a gas cloud on impact.
  */
 public class TearGasItem extends AbstractTargetingItem {
 
-    private static final String ID = "teargas";
+    public static final String TYPE = "teargas";
+    private static final int COOLDOWN_TICKS = 20; // One canister per second
 
     // Item projectile constants
-    public static final String METADATA_KEY = "TEARGAS_PROJECTILE"; // Unique key for this projectile
-    public static final int ACTIVATION_TICKS_THRESHOLD = 10; // Min ticks lived before stationary check
-    public static final int PROC_DELAY_TICKS = 2; // Ticks to wait after landing while stationary
-    public static final double STATIONARY_VELOCITY_THRESHOLD = 0.005; // Velocity threshold for 'stationary'
-    public static final int FAILSAFE_DESPAWN_TICKS = 60; // Max flight time before forced activation/despawn (3 seconds)
+    private static final int ACTIVATION_TICKS_THRESHOLD = 10; // Min ticks lived before stationary check
+    private static final int PROC_DELAY_TICKS = 2; // Ticks to wait after landing while stationary
+    private static final double STATIONARY_VELOCITY_THRESHOLD = 0.005; // Velocity threshold for 'stationary'
+    private static final int FAILSAFE_DESPAWN_TICKS = 60; // Max flight time before forced activation/despawn (3 seconds)
+
+    // Gas cloud constants
+    private static final int CLOUD_DURATION_TICKS = 10 * 20; // 10 seconds total duration
+    private static final float CLOUD_RADIUS = 3.0f; // 3 block radius
+    private static final float CLOUD_RADIUS_PER_TICK = -0.01f; // Shrinks slightly
+    private static final int CLOUD_WAIT_TIME = 5; // 0.25 seconds before it applies effects
+    // How often effects reapply is the GasCloudEngine's pass interval (gas-clouds.reapplication-interval-ticks)
+
+    // Potion effect constants
+    private static final int EFFECT_DURATION_TICKS = 4 * 20; // 4 second effect on contact (POISON, NAUSEA)
+    private static final int POISON_AMPLIFIER = 0; // Level 1 Poison
+    private static final int NAUSEA_AMPLIFIER = 0; // Level 1 Nausea
+
+    // Used for anything items.yml leaves out
+    public static final ItemSpec DEFAULT_SPEC = new ItemSpec(TYPE, TYPE, Material.GLASS_BOTTLE, // Glass Bottle for visual
+            "§8§lTear Gas §8Canister §c✪✪",
+            List.of(
+                    "§8• §fA non-lethal projectile that",
+                    "§fcauses temporary blindness",
+                    "§fand disorientation in an area.",
+                    "§r",
+                    "§7§o(( Right-click to use. ))"
+            ),
+            DEFAULT_RANGE, COOLDOWN_TICKS, 1);
+
+    private final Settings settings;
+
+    // Shared landing rules for every canister, ticked by the ProjectileEngine
+    private TearGasTracker tracker;
+
+    public TearGasItem() {
+        this(DEFAULT_SPEC, Settings.DEFAULTS);
+    }
 
-    @Override
-    public String getId() {
-        return ID;
+    public TearGasItem(ItemSpec spec, Settings settings) {
+        super(spec);
+        this.settings = settings;
     }
 
+    /**
+     * Flight time plus the lifetime of the cloud.
+     */
     @Override
-    public ItemStack getItem(int amount) {
-        ItemStack item = new ItemStack(Material.GLASS_BOTTLE, amount); // Changed to Glass Bottle for visual
-        ItemMeta meta = item.getItemMeta();
-
-        meta.setDisplayName("§8§lTear Gas §8Canister §c✪✪");
-        meta.setLore(Arrays.asList(
-                "§8• §fA non-lethal projectile that",
-                "§fcauses temporary blindness",
-                "§fand disorientation in an area.",
-                "§r",
-                "§7§o(( Right-click to use. ))"
-        ));
-
-        item.setItemMeta(meta);
-        return item;
+    public int getHazardLifetimeTicks() {
+        return settings.getFailsafeTicks() + settings.getCloudWaitTicks() + settings.getCloudDurationTicks();
     }
 
     /**
      * Executes the Tear Gas throw logic.
-     * Launches a custom Item entity that is tracked by TearGasTracker.
+     * Launches a custom Item entity that is tracked by the ProjectileEngine,
+     * or a virtual projectile when projectiles.virtual is on.
      */
     @Override
     public void onThrow(Player activator, Location targetLocation, Plugin plugin) {
         activator.sendMessage("§a§l(!) §aTear Gas launched!");
-        activator.getWorld().playSound(activator.getLocation(), Sound.ENTITY_EGG_THROW, 0.5f, 1.0f); // Throw sound
+        ItemsBGS.getPlugin().getEffectsBus().playSound(activator.getLocation(), Sound.ENTITY_EGG_THROW, 0.5f, 1.0f); // Throw sound
 
         Location eyeLoc = activator.getEyeLocation();
+        Vector velocity = targetLocation.toVector().subtract(eyeLoc.toVector());
+        velocity.normalize().multiply(0.9);
+        velocity.setY(velocity.getY() + 0.1); // Arc
+
+        // The TearGasTracker will spawn the gas cloud when the canister lands.
+        if (tracker == null) {
+            tracker = new TearGasTracker(plugin, settings);
+        }
+
+        // Virtual mode: no entity at all, the flight is simulated and shown as a smoke trail
+        if (ItemsBGS.getPlugin().isVirtualProjectiles()) {
+            ItemsBGS.getPlugin().getVirtualProjectileEngine().launch(eyeLoc, velocity, tracker, Particle.SMOKE_NORMAL);
+            return;
+        }
 
         // 1. Create the item to be "thrown"
         ItemStack canisterStack = new ItemStack(Material.GLASS_BOTTLE); // Visual item
@@ -75,16 +113,106 @@ public class TearGasItem extends AbstractTargetingItem {
         tearGasCanister.setGravity(true); // Ensure it has gravity
 
         // 3. Apply the velocity
-        Vector velocity = targetLocation.toVector().subtract(eyeLoc.toVector());
-        velocity.normalize().multiply(0.9);
-        velocity.setY(velocity.getY() + 0.1); // Arc
         tearGasCanister.setVelocity(velocity);
 
-        // 4. TAG THE ITEM with metadata
-        tearGasCanister.setMetadata(METADATA_KEY, new FixedMetadataValue(plugin, true));
+        // 4. Never save it with its chunk, the ProjectileEngine is its only owner
+        tearGasCanister.setPersistent(false);
 
-        // 5. START THE NEW TRACKING TASK
-        // The TearGasTracker will spawn the AreaEffectCloud when the item lands.
-        new TearGasTracker(tearGasCanister, plugin).runTaskTimer(plugin, 1L, 1L);
+        // 5. HAND THE ITEM TO THE PROJECTILE ENGINE
+        ItemsBGS.getPlugin().getProjectileEngine().track(tearGasCanister, tracker);
+    }
+
+    /**
+     * Tunable tear gas parameters, shared with the TearGasTracker.
+     */
+    public static final class Settings {
+        public static final Settings DEFAULTS = new Settings(ACTIVATION_TICKS_THRESHOLD, PROC_DELAY_TICKS,
+                STATIONARY_VELOCITY_THRESHOLD, FAILSAFE_DESPAWN_TICKS, CLOUD_DURATION_TICKS, CLOUD_RADIUS,
+                CLOUD_RADIUS_PER_TICK, CLOUD_WAIT_TIME, EFFECT_DURATION_TICKS, POISON_AMPLIFIER, NAUSEA_AMPLIFIER);
+
+        private final int activationTicks;
+        private final int procDelayTicks;
+        private final double stationaryVelocity;
+        private final int failsafeTicks;
+        private final int cloudDurationTicks;
+        private final float cloudRadius;
+        private final float cloudRadiusPerTick;
+        private final int cloudWaitTicks;
+        private final int effectDurationTicks;
+        private final int poisonAmplifier;
+        private final int nauseaAmplifier;
+
+        /**
+         * @param activationTicks Minimum flight time before the canister can land.
+         * @param procDelayTicks Ticks the canister has to rest before the cloud spawns.
+         * @param stationaryVelocity Squared speed under which the canister counts as resting.
+         * @param failsafeTicks Flight time after which the cloud spawns wherever the canister is.
+         * @param cloudDurationTicks How long the cloud lasts once active.
+         * @param cloudRadius Starting radius of the cloud.
+         * @param cloudRadiusPerTick Radius change per tick (negative shrinks).
+         * @param cloudWaitTicks Ticks before the cloud starts applying effects.
+         * @param effectDurationTicks Duration of the poison and nausea effects.
+         * @param poisonAmplifier Poison level minus one.
+         * @param nauseaAmplifier Nausea level minus one.
+         */
+        public Settings(int activationTicks, int procDelayTicks, double stationaryVelocity, int failsafeTicks,
+                        int cloudDurationTicks, float cloudRadius, float cloudRadiusPerTick, int cloudWaitTicks,
+                        int effectDurationTicks, int poisonAmplifier, int nauseaAmplifier) {
+            this.activationTicks = activationTicks;
+            this.procDelayTicks = procDelayTicks;
+            this.stationaryVelocity = stationaryVelocity;
+            this.failsafeTicks = failsafeTicks;
+            this.cloudDurationTicks = cloudDurationTicks;
+            this.cloudRadius = cloudRadius;
+            this.cloudRadiusPerTick = cloudRadiusPerTick;
+            this.cloudWaitTicks = cloudWaitTicks;
+            this.effectDurationTicks = effectDurationTicks;
+            this.poisonAmplifier = poisonAmplifier;
+            this.nauseaAmplifier = nauseaAmplifier;
+        }
+
+        public int getActivationTicks() {
+            return activationTicks;
+        }
+
+        public int getProcDelayTicks() {
+            return procDelayTicks;
+        }
+
+        public double getStationaryVelocity() {
+            return stationaryVelocity;
+        }
+
+        public int getFailsafeTicks() {
+            return failsafeTicks;
+        }
+
+        public int getCloudDurationTicks() {
+            return cloudDurationTicks;
+        }
+
+        public float getCloudRadius() {
+            return cloudRadius;
+        }
+
+        public float getCloudRadiusPerTick() {
+            return cloudRadiusPerTick;
+        }
+
+        public int getCloudWaitTicks() {
+            return cloudWaitTicks;
+        }
+
+        public int getEffectDurationTicks() {
+            return effectDurationTicks;
+        }
+
+        public int getPoisonAmplifier() {
+            return poisonAmplifier;
+        }
+
+        public int getNauseaAmplifier() {
+            return nauseaAmplifier;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package me.remag501.itemsbgs.listener;
+
+import me.remag501.itemsbgs.command.CompletionIndex;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps the tab completion index in step with the online players and loaded worlds.
+ */
+public class CompletionListener implements Listener {
+
+    private final CompletionIndex completionIndex;
+
+    public CompletionListener(CompletionIndex completionIndex) {
+        this.completionIndex = completionIndex;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        completionIndex.addPlayer(event.getPlayer().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        completionIndex.removePlayer(event.getPlayer().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        completionIndex.addWorld(event.getWorld().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        completionIndex.removeWorld(event.getWorld().getName());
+    }
+}
@@ -3,7 +3,13 @@ package me.remag501.itemsbgs.listener;
 import me.remag501.itemsbgs.ItemsBGS;
 import me.remag501.itemsbgs.item.CustomItem;
 import me.remag501.itemsbgs.item.ProjectileItem;
+import me.remag501.itemsbgs.manager.AdmissionController;
+import me.remag501.itemsbgs.manager.ConsumptionService;
+import me.remag501.itemsbgs.manager.CooldownManager;
+import me.remag501.itemsbgs.manager.HeldItemCache;
 import me.remag501.itemsbgs.manager.ItemManager;
+import me.remag501.itemsbgs.metrics.MetricsRegistry;
+import me.remag501.itemsbgs.runnable.ActivationExecutor;
 
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
@@ -11,28 +17,49 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.Material;
 
-import java.util.Optional;
-
 /**
  * Handles all player interactions (clicks) for custom item activation.
  * This listener acts as the gatekeeper, deciding whether to activate the item
  * and managing the item consumption process.
+ * The click itself only runs the cheap checks; targeting, consumption and the effect are
+ * queued and run by the ActivationExecutor under a per-tick time budget.
  */
 public class ItemListener implements Listener {
 
     private final ItemsBGS plugin;
     private final ItemManager itemManager;
+    private final HeldItemCache heldItemCache;
+    private final CooldownManager cooldowns;
+    private final ConsumptionService consumption;
+    private final ActivationExecutor activationExecutor;
+    private final MetricsRegistry metrics;
 
     public ItemListener(ItemsBGS plugin, ItemManager itemManager) {
         this.plugin = plugin;
         this.itemManager = itemManager;
+        this.heldItemCache = new HeldItemCache(itemManager);
+        this.cooldowns = new CooldownManager(plugin.getTickMonitor());
+        this.consumption = new ConsumptionService();
+        this.metrics = plugin.getMetrics();
+        this.activationExecutor = plugin.getActivationExecutor();
     }
 
     @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
+        long start = System.nanoTime();
+        try {
+            handleInteract(event);
+        } finally {
+            metrics.getInteractLatency().record(System.nanoTime() - start);
+        }
+    }
+
+    private void handleInteract(PlayerInteractEvent event) {
         // 1. Filter for a right-click action with an item in hand
         if (event.getAction() != Action.RIGHT_CLICK_AIR && event.getAction() != Action.RIGHT_CLICK_BLOCK) {
             return;
@@ -45,23 +72,53 @@ public class ItemListener implements Listener {
 
         Player player = event.getPlayer();
 
-        // 2. Identify if the item is a custom item (Correctly chaining ItemManager methods)
-        String customItemId = itemManager.getCustomItemId(heldItem);
-        if (customItemId == null) {
+        // 2. Identify if the item is a custom item
+        // Vanilla items are rejected by material before the item meta is read
+        CustomItem customItem = heldItemCache.resolve(player, heldItem);
+        if (customItem == null) {
             return;
         }
 
-        Optional<CustomItem> customItemOpt = Optional.ofNullable(itemManager.getItemById(customItemId));
-        if (customItemOpt.isEmpty()) {
+        // Prevent block interaction (like opening doors) when right-clicking with a custom item
+        event.setCancelled(true);
+
+        // 3. Rate limit before any targeting work runs (silently, macro clicks are expected)
+        int cooldownTicks = customItem.getCooldownTicks();
+        int itemIndex = itemManager.getItemIndex(customItem.getId());
+        if (cooldownTicks > 0 && !cooldowns.tryAcquire(player, itemIndex, cooldownTicks, customItem.getCooldownBurst())) {
+            metrics.recordReject(MetricsRegistry.REJECT_COOLDOWN);
             return;
         }
 
-        CustomItem customItem = customItemOpt.get();
+        // 4. Queue the rest (targeting, consumption, the effect) for the activation executor,
+        // which runs it under a tick budget. A full queue refuses the use (silently, like a cooldown).
+        ItemActivation activation = new ItemActivation(player, event.getHand(), customItem, itemIndex, cooldownTicks);
+        if (!activationExecutor.submit(player.getUniqueId(), activation)) {
+            refundCooldown(player, itemIndex, cooldownTicks);
+            metrics.recordReject(MetricsRegistry.REJECT_QUEUE_FULL);
+        }
+    }
 
-        // Prevent block interaction (like opening doors) when right-clicking with a custom item
-        event.setCancelled(true);
+    /**
+     * Runs a queued activation, a tick or so after the click.
+     */
+    private void activate(ItemActivation activation) {
+        Player player = activation.player;
+        CustomItem customItem = activation.customItem;
+        if (!player.isOnline()) {
+            return;
+        }
 
-        // 3. Handle Projectile/Targeting Items
+        // 5. The hand must still hold the same item (the player may have switched slots since the click)
+        EquipmentSlot hand = activation.hand;
+        ItemStack heldItem = player.getInventory().getItem(hand);
+        if (heldItemCache.resolve(player, heldItem) != customItem) {
+            refundCooldown(player, activation.itemIndex, activation.cooldownTicks);
+            metrics.recordReject(MetricsRegistry.REJECT_STALE);
+            return;
+        }
+
+        // 6. Handle Projectile/Targeting Items
         if (customItem instanceof ProjectileItem projectileItem) {
 
             // Phase 1: Calculation (Delegate targeting logic to the item)
@@ -70,24 +127,100 @@ public class ItemListener implements Listener {
             // Phase 2: Validation (Listener acts as the gatekeeper)
             if (activationLoc == null) {
                 player.sendMessage("§cNo valid target found within range!");
+                refundCooldown(player, activation.itemIndex, activation.cooldownTicks);
+                metrics.recordReject(MetricsRegistry.REJECT_NO_TARGET);
                 return;
             }
 
-            // Phase 3: Consumption & Execution (Only if target is valid)
-            ItemStack oneUnitToConsume = heldItem.clone();
-            oneUnitToConsume.setAmount(1);
+            // Phase 2b: Admission (caps on live hazards, refused while the server is overloaded)
+            AdmissionController.Lease lease = plugin.getAdmissionController().tryAdmit(player, projectileItem, activationLoc);
+            AdmissionController.Rejection rejection = lease.getRejection();
+            if (rejection != AdmissionController.Rejection.NONE) {
+                sendRejection(player, rejection);
+                refundCooldown(player, activation.itemIndex, activation.cooldownTicks);
+                metrics.recordReject(rejection.name());
+                return;
+            }
 
-            // This is the reliable, client-syncing way to consume one item
-            player.getInventory().removeItem(oneUnitToConsume);
-            player.updateInventory();
+            // Phase 3: Consumption & Execution (Only if target is valid and admitted)
+            // One unit is taken from the hand the click came from; only that slot is resent
+            ItemStack consumed = consumption.consume(player, hand, heldItem);
+            if (consumed == null) {
+                plugin.getAdmissionController().release(lease);
+                refundCooldown(player, activation.itemIndex, activation.cooldownTicks);
+                return;
+            }
 
-            projectileItem.onThrow(player, activationLoc, plugin);
+            try {
+                projectileItem.onThrow(player, activationLoc, plugin);
+            } catch (RuntimeException e) {
+                // The throw failed, so the use didn't happen: give back the item, the lease and the cooldown
+                consumption.refund(player, hand, consumed);
+                plugin.getAdmissionController().release(lease);
+                refundCooldown(player, activation.itemIndex, activation.cooldownTicks);
+                throw e;
+            }
+            metrics.recordActivation(customItem.getId());
 
         } else {
-            // 4. Handle Location-Agnostic/Utility Items
+            // 7. Handle Location-Agnostic/Utility Items
 
             // Utility items don't consume on activation by default; logic is in onActivate()
             customItem.onActivate(player, plugin);
+            metrics.recordActivation(customItem.getId());
+        }
+    }
+
+    private void refundCooldown(Player player, int itemIndex, int cooldownTicks) {
+        if (cooldownTicks > 0) {
+            cooldowns.refund(player, itemIndex, cooldownTicks);
+        }
+    }
+
+    private void sendRejection(Player player, AdmissionController.Rejection rejection) {
+        switch (rejection) {
+            case SERVER_BUSY -> player.sendMessage("§cThe server is too busy right now, try again in a moment!");
+            case PLAYER_LIMIT -> player.sendMessage("§cYou already have too many active throwables!");
+            case CHUNK_LIMIT, WORLD_LIMIT -> player.sendMessage("§cThere are too many active throwables in this area!");
+            default -> {
+            }
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        activationExecutor.removePlayer(event.getPlayer().getUniqueId());
+        heldItemCache.invalidate(event.getPlayer());
+        cooldowns.clear(event.getPlayer());
+    }
+
+    /**
+     * A click that passed the cheap checks (custom item, cooldown), waiting for the executor.
+     */
+    private final class ItemActivation extends ActivationExecutor.Activation {
+        private final Player player;
+        private final EquipmentSlot hand;
+        private final CustomItem customItem;
+        private final int itemIndex;
+        private final int cooldownTicks;
+
+        private ItemActivation(Player player, EquipmentSlot hand, CustomItem customItem, int itemIndex, int cooldownTicks) {
+            this.player = player;
+            this.hand = hand;
+            this.customItem = customItem;
+            this.itemIndex = itemIndex;
+            this.cooldownTicks = cooldownTicks;
+        }
+
+        @Override
+        public void execute() {
+            activate(this);
+        }
+
+        @Override
+        public void discard() {
+            // Never ran: the item wasn't used, so the cooldown isn't either
+            refundCooldown(player, itemIndex, cooldownTicks);
         }
     }
 }
@@ -0,0 +1,61 @@
+package me.remag501.itemsbgs.listener;
+
+import me.remag501.itemsbgs.ItemsBGS;
+import me.remag501.itemsbgs.manager.LifecycleRegistry;
+import me.remag501.itemsbgs.util.ChunkSnapshotCache;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Releases what the plugin holds in chunks and worlds that unload, so nothing is saved
+ * with them (projectile entities, temporary fire) and nothing keeps an unloaded world alive.
+ * Worlds that load late get the fire a crash left in them rolled back, chunks that load again get
+ * the fire removals that were dropped while they were unloaded, and a world save lets the fire
+ * journal forget the blocks extinguished before it.
+ */
+public class LifecycleListener implements Listener {
+
+    private final LifecycleRegistry lifecycle;
+    private final ChunkSnapshotCache snapshotCache;
+
+    public LifecycleListener(LifecycleRegistry lifecycle, ChunkSnapshotCache snapshotCache) {
+        this.lifecycle = lifecycle;
+        this.snapshotCache = snapshotCache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        ItemsBGS.getPlugin().getFireExpiryWheel().chunkLoaded(event.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        lifecycle.releaseChunk(event.getWorld(), chunk.getX(), chunk.getZ());
+        snapshotCache.invalidate(event.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        ItemsBGS.getPlugin().rollBackCarriedFire(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(WorldSaveEvent event) {
+        ItemsBGS.getPlugin().onWorldSaved(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        lifecycle.releaseWorld(event.getWorld());
+        snapshotCache.invalidateWorld(event.getWorld());
+    }
+}
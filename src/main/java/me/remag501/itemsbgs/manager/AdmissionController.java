@@ -0,0 +1,257 @@
+package me.remag501.itemsbgs.manager;
+
+import me.remag501.itemsbgs.item.ProjectileItem;
+import me.remag501.itemsbgs.runnable.TickMonitor;
+import me.remag501.itemsbgs.util.BlockKey;
+import me.remag501.itemsbgs.util.LongObjectMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Decides whether a throw may go ahead, based on how many hazards are already live and
+ * on how busy the server is.
+ *
+ * Every admitted throw holds a lease for the item's hazard lifetime, counted against its
+ * player, chunk and world caps. As the rolling tick time rises the controller steps through
+ * degrade modes: smaller molotov fires, then also shorter gas clouds, and finally refusing
+ * throws altogether (the item is not consumed).
+ * Must only be used from the main thread.
+ */
+public class AdmissionController {
+
+    /**
+     * How much item effects are scaled back, from healthy to overloaded.
+     */
+    public enum DegradeLevel {
+        NORMAL,
+        REDUCED,
+        MINIMAL,
+        REFUSE
+    }
+
+    /**
+     * Why a throw was not admitted.
+     */
+    public enum Rejection {
+        NONE,
+        SERVER_BUSY,
+        PLAYER_LIMIT,
+        CHUNK_LIMIT,
+        WORLD_LIMIT
+    }
+
+    // Rejected throws share one inert lease per reason
+    private static final Lease[] REJECTED = new Lease[Rejection.values().length];
+
+    static {
+        for (Rejection rejection : Rejection.values()) {
+            REJECTED[rejection.ordinal()] = new Lease(rejection, null, null, 0, 0);
+        }
+    }
+
+    private final TickMonitor tickMonitor;
+    private final PriorityQueue<Lease> leases = new PriorityQueue<>((a, b) -> Long.compare(a.expiresAt, b.expiresAt));
+    private final Map<UUID, int[]> playerCounts = new HashMap<>();
+    private final Map<UUID, int[]> worldCounts = new HashMap<>();
+    private final Map<UUID, LongObjectMap<int[]>> chunkCounts = new HashMap<>();
+
+    private final int maxPerPlayer;
+    private final int maxPerChunk;
+    private final int maxPerWorld;
+    private final double reducedAtMillis;
+    private final double minimalAtMillis;
+    private final double refuseAtMillis;
+    private final int reducedFireRadius;
+    private final double minimalCloudDurationScale;
+
+    /**
+     * @param tickMonitor Source of the current tick and the rolling tick time.
+     * @param config The "admission" section of config.yml, may be null for defaults.
+     */
+    public AdmissionController(TickMonitor tickMonitor, ConfigurationSection config) {
+        this.tickMonitor = tickMonitor;
+        this.maxPerPlayer = config == null ? 6 : config.getInt("max-per-player", 6);
+        this.maxPerChunk = config == null ? 12 : config.getInt("max-per-chunk", 12);
+        this.maxPerWorld = config == null ? 150 : config.getInt("max-per-world", 150);
+        this.reducedAtMillis = config == null ? 55 : config.getDouble("reduced-at-ms", 55);
+        this.minimalAtMillis = config == null ? 65 : config.getDouble("minimal-at-ms", 65);
+        this.refuseAtMillis = config == null ? 80 : config.getDouble("refuse-at-ms", 80);
+        this.reducedFireRadius = config == null ? 1 : config.getInt("reduced-fire-radius", 1);
+        this.minimalCloudDurationScale = config == null ? 0.5 : config.getDouble("minimal-cloud-duration-scale", 0.5);
+    }
+
+    /**
+     * Checks the caps and the degrade mode, and takes a lease if the throw is admitted.
+     * @param player The thrower.
+     * @param item The thrown item, which defines how long its hazard stays live.
+     * @param target The validated target location.
+     * @return The lease, to {@link #release} if the throw fails after all. Its rejection is NONE
+     *         if the throw is admitted, otherwise the reason it was refused.
+     */
+    public Lease tryAdmit(Player player, ProjectileItem item, Location target) {
+        long now = tickMonitor.getCurrentTick();
+        expireLeases(now);
+
+        if (getDegradeLevel() == DegradeLevel.REFUSE) {
+            return REJECTED[Rejection.SERVER_BUSY.ordinal()];
+        }
+
+        World world = target.getWorld();
+        long chunkKey = BlockKey.chunkOf(target.getBlockX(), target.getBlockZ());
+        int[] playerCount = playerCounts.get(player.getUniqueId());
+        int[] worldCount = worldCounts.get(world.getUID());
+        LongObjectMap<int[]> worldChunks = chunkCounts.get(world.getUID());
+        int[] chunkCount = worldChunks == null ? null : worldChunks.get(chunkKey);
+
+        if (playerCount != null && playerCount[0] >= maxPerPlayer) {
+            return REJECTED[Rejection.PLAYER_LIMIT.ordinal()];
+        }
+        if (chunkCount != null && chunkCount[0] >= maxPerChunk) {
+            return REJECTED[Rejection.CHUNK_LIMIT.ordinal()];
+        }
+        if (worldCount != null && worldCount[0] >= maxPerWorld) {
+            return REJECTED[Rejection.WORLD_LIMIT.ordinal()];
+        }
+
+        Lease lease = new Lease(Rejection.NONE, player.getUniqueId(), world.getUID(), chunkKey,
+                now + item.getHazardLifetimeTicks());
+        leases.add(lease);
+        increment(playerCounts, lease.playerId);
+        increment(worldCounts, lease.worldId);
+        if (worldChunks == null) {
+            worldChunks = new LongObjectMap<>();
+            chunkCounts.put(lease.worldId, worldChunks);
+        }
+        if (chunkCount == null) {
+            chunkCount = new int[1];
+            worldChunks.put(chunkKey, chunkCount);
+        }
+        chunkCount[0]++;
+        return lease;
+    }
+
+    /**
+     * Gives back a lease before it expires, when the admitted throw didn't happen after all
+     * (e.g., the item was no longer in hand, or the throw failed). Rejected leases are ignored.
+     */
+    public void release(Lease lease) {
+        if (lease.rejection != Rejection.NONE || lease.released) {
+            return;
+        }
+        leases.remove(lease);
+        releaseCounts(lease);
+    }
+
+    /**
+     * @return The current degrade mode, derived from the rolling tick time.
+     */
+    public DegradeLevel getDegradeLevel() {
+        double tickMillis = tickMonitor.getAverageTickMillis();
+        if (tickMillis >= refuseAtMillis) {
+            return DegradeLevel.REFUSE;
+        }
+        if (tickMillis >= minimalAtMillis) {
+            return DegradeLevel.MINIMAL;
+        }
+        if (tickMillis >= reducedAtMillis) {
+            return DegradeLevel.REDUCED;
+        }
+        return DegradeLevel.NORMAL;
+    }
+
+    /**
+     * @param baseRadius The molotov's normal fire radius.
+     * @return The fire radius to use in the current degrade mode.
+     */
+    public int getFireRadius(int baseRadius) {
+        return getDegradeLevel() == DegradeLevel.NORMAL ? baseRadius : Math.min(baseRadius, reducedFireRadius);
+    }
+
+    /**
+     * @param baseDuration The gas cloud's normal duration in ticks.
+     * @return The cloud duration to use in the current degrade mode.
+     */
+    public int getCloudDuration(int baseDuration) {
+        DegradeLevel level = getDegradeLevel();
+        if (level == DegradeLevel.MINIMAL || level == DegradeLevel.REFUSE) {
+            return Math.max(1, (int) (baseDuration * minimalCloudDurationScale));
+        }
+        return baseDuration;
+    }
+
+    /**
+     * @return The number of live leases (admitted hazards that haven't ended yet).
+     */
+    public int getLiveCount() {
+        expireLeases(tickMonitor.getCurrentTick());
+        return leases.size();
+    }
+
+    private void expireLeases(long now) {
+        Lease lease;
+        while ((lease = leases.peek()) != null && lease.expiresAt <= now) {
+            leases.poll();
+            releaseCounts(lease);
+        }
+    }
+
+    private void releaseCounts(Lease lease) {
+        lease.released = true;
+        decrement(playerCounts, lease.playerId);
+        decrement(worldCounts, lease.worldId);
+
+        LongObjectMap<int[]> worldChunks = chunkCounts.get(lease.worldId);
+        int[] chunkCount = worldChunks.get(lease.chunkKey);
+        if (--chunkCount[0] <= 0) {
+            worldChunks.remove(lease.chunkKey);
+            if (worldChunks.isEmpty()) {
+                chunkCounts.remove(lease.worldId);
+            }
+        }
+    }
+
+    private static void increment(Map<UUID, int[]> counts, UUID id) {
+        counts.computeIfAbsent(id, key -> new int[1])[0]++;
+    }
+
+    private static void decrement(Map<UUID, int[]> counts, UUID id) {
+        int[] count = counts.get(id);
+        if (--count[0] <= 0) {
+            counts.remove(id);
+        }
+    }
+
+    /**
+     * An admitted throw's hold on the caps, or the reason a throw was refused.
+     */
+    public static final class Lease {
+        private final Rejection rejection;
+        private final UUID playerId;
+        private final UUID worldId;
+        private final long chunkKey;
+        private final long expiresAt;
+        private boolean released = false;
+
+        private Lease(Rejection rejection, UUID playerId, UUID worldId, long chunkKey, long expiresAt) {
+            this.rejection = rejection;
+            this.playerId = playerId;
+            this.worldId = worldId;
+            this.chunkKey = chunkKey;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @return NONE if the throw was admitted, otherwise the reason it was refused.
+         */
+        public Rejection getRejection() {
+            return rejection;
+        }
+    }
+}
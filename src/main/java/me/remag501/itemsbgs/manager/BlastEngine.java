@@ -0,0 +1,240 @@
+package me.remag501.itemsbgs.manager;
+
+import me.remag501.itemsbgs.metrics.LatencyHistogram;
+import me.remag501.itemsbgs.runnable.EffectsBus;
+import me.remag501.itemsbgs.util.BlockKey;
+import me.remag501.itemsbgs.util.VoxelRaycaster;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.inventory.EntityEquipment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Non-destructive blast used instead of World#createExplosion.
+ * Victims are found with an entity query over the blast's bounding box only, never a scan of
+ * the whole world.
+ * Exposure is sampled with line-of-sight rays against chunk snapshots and cached per
+ * (blast block, entity) for the rest of the tick. Damage falls off with distance and
+ * exposure, and the number of victims per blast is capped to keep the cost predictable.
+ * Damage is dealt as a block explosion with no attacker, like the explosion it replaces: it goes
+ * through EntityDamageEvent (so region and PvP protection see an explosion, not a hit), and Blast
+ * Protection reduces both damage and knockback.
+ * Must only be used from the main thread.
+ */
+public class BlastEngine {
+
+    // Rays only pass through blocks that don't stop an explosion in practice
+    private static final Set<Material> BLAST_PASSABLE = Collections.unmodifiableSet(
+            EnumSet.of(Material.AIR, Material.CAVE_AIR, Material.VOID_AIR, Material.FIRE,
+                    Material.GRASS, Material.TALL_GRASS, Material.WATER, Material.LIGHT));
+
+    // Vanilla Blast Protection: 2 protection points per level (capped at 20, 4% each) and 15% less knockback per level
+    private static final int BLAST_PROTECTION_POINTS = 2;
+    private static final int MAX_PROTECTION_POINTS = 20;
+    private static final double KNOCKBACK_REDUCTION_PER_LEVEL = 0.15;
+
+    // Direct-mapped exposure cache, one slot per (blast block, entity) hash
+    private static final int EXPOSURE_CACHE_SIZE = 1024;
+    private static final int EXPOSURE_CACHE_MASK = EXPOSURE_CACHE_SIZE - 1;
+
+    private final VoxelRaycaster raycaster;
+    private final Settings settings;
+    private final EffectsBus effects;
+
+    private final long[] cachedBlastKeys = new long[EXPOSURE_CACHE_SIZE];
+    private final int[] cachedEntityIds = new int[EXPOSURE_CACHE_SIZE];
+    private final long[] cachedTicks = new long[EXPOSURE_CACHE_SIZE];
+    private final float[] cachedExposures = new float[EXPOSURE_CACHE_SIZE];
+
+    private final LatencyHistogram effectLatency;
+
+    private final int[] scratchCell = new int[3];
+    private final int[] scratchProtection = new int[2];
+    private final double[] sampleHeights = {0.1, 0.5, 0.9};
+
+    public BlastEngine(VoxelRaycaster raycaster, Settings settings, EffectsBus effects, LatencyHistogram effectLatency) {
+        this.raycaster = raycaster;
+        this.effects = effects;
+        this.settings = settings;
+        this.effectLatency = effectLatency;
+        Arrays.fill(cachedTicks, Long.MIN_VALUE);
+    }
+
+    /**
+     * Detonates a blast at the given location.
+     * @param center The blast center.
+     * @return The number of entities hit.
+     */
+    public int detonate(Location center) {
+        long start = System.nanoTime();
+        try {
+            return resolve(center);
+        } finally {
+            effectLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    private int resolve(Location center) {
+        World world = center.getWorld();
+        long tick = world.getGameTime();
+
+        double radius = settings.radius;
+        double centerX = center.getX();
+        double centerY = center.getY();
+        double centerZ = center.getZ();
+        long blastKey = BlockKey.pack(center.getBlockX(), center.getBlockY(), center.getBlockZ());
+
+        effects.spawnParticle(center, Particle.EXPLOSION_LARGE, 1);
+
+        int victims = 0;
+        // Only the blast's bounding box is queried, like the explosion it replaces
+        BoundingBox area = new BoundingBox(centerX - radius, centerY - radius, centerZ - radius,
+                centerX + radius, centerY + radius, centerZ + radius);
+        for (Entity nearby : world.getNearbyEntities(area, LivingEntity.class::isInstance)) {
+            if (victims >= settings.maxVictims) {
+                return victims;
+            }
+
+            LivingEntity entity = (LivingEntity) nearby;
+            if (!entity.isValid()) {
+                continue;
+            }
+
+            BoundingBox box = entity.getBoundingBox();
+            double dx = box.getCenterX() - centerX;
+            double dy = box.getCenterY() - centerY;
+            double dz = box.getCenterZ() - centerZ;
+            double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (distance > radius) {
+                continue;
+            }
+
+            float exposure = exposure(world, tick, blastKey, centerX, centerY, centerZ, entity, box);
+            if (exposure <= 0) {
+                continue;
+            }
+
+            double impact = (1 - distance / radius) * exposure;
+            double damage = settings.maxDamage * Math.pow(impact, settings.damageFalloff);
+            int[] blastProtection = blastProtection(entity);
+            if (damage > 0) {
+                EntityDamageEvent event = new EntityDamageEvent(entity, EntityDamageEvent.DamageCause.BLOCK_EXPLOSION, damage);
+                Bukkit.getPluginManager().callEvent(event);
+                if (event.isCancelled()) {
+                    continue;
+                }
+                int points = Math.min(MAX_PROTECTION_POINTS, blastProtection[0] * BLAST_PROTECTION_POINTS);
+                entity.damage(event.getDamage() * (1 - points / 25.0));
+                // damage(double) records a custom cause, credit the explosion instead
+                entity.setLastDamageCause(event);
+            }
+
+            double knockback = settings.knockback * Math.max(0, 1 - blastProtection[1] * KNOCKBACK_REDUCTION_PER_LEVEL);
+            if (knockback > 0 && distance > 0.01) {
+                double strength = knockback * impact / distance;
+                entity.setVelocity(entity.getVelocity().add(new Vector(dx * strength, dy * strength, dz * strength)));
+            }
+            victims++;
+        }
+        return victims;
+    }
+
+    /**
+     * @return The total and the highest Blast Protection level over the entity's armor.
+     */
+    private int[] blastProtection(LivingEntity entity) {
+        int total = 0;
+        int highest = 0;
+        EntityEquipment equipment = entity.getEquipment();
+        if (equipment != null) {
+            for (ItemStack armor : equipment.getArmorContents()) {
+                if (armor != null) {
+                    int level = armor.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS);
+                    total += level;
+                    highest = Math.max(highest, level);
+                }
+            }
+        }
+        scratchProtection[0] = total;
+        scratchProtection[1] = highest;
+        return scratchProtection;
+    }
+
+    /**
+     * Fraction (0-1) of sample points on the entity that have line of sight to the blast.
+     */
+    private float exposure(World world, long tick, long blastKey, double centerX, double centerY, double centerZ,
+                           LivingEntity entity, BoundingBox box) {
+        int entityId = entity.getEntityId();
+        int slot = (int) (blastKey * 31 + entityId) & EXPOSURE_CACHE_MASK;
+        if (cachedTicks[slot] == tick && cachedBlastKeys[slot] == blastKey && cachedEntityIds[slot] == entityId) {
+            return cachedExposures[slot];
+        }
+
+        int visible = 0;
+        double sampleX = box.getCenterX();
+        double sampleZ = box.getCenterZ();
+        for (double heightFraction : sampleHeights) {
+            double sampleY = box.getMinY() + box.getHeight() * heightFraction;
+            if (!raycaster.isObstructed(world, sampleX, sampleY, sampleZ, centerX, centerY, centerZ, BLAST_PASSABLE, scratchCell)
+                    || isBlastCell(blastKey)) {
+                visible++;
+            }
+        }
+
+        float exposure = (float) visible / sampleHeights.length;
+        cachedTicks[slot] = tick;
+        cachedBlastKeys[slot] = blastKey;
+        cachedEntityIds[slot] = entityId;
+        cachedExposures[slot] = exposure;
+        return exposure;
+    }
+
+    /**
+     * A grenade lands on (and is centered in) a block, so the ray hitting that
+     * block itself doesn't count as cover.
+     */
+    private boolean isBlastCell(long blastKey) {
+        return BlockKey.pack(scratchCell[0], scratchCell[1], scratchCell[2]) == blastKey;
+    }
+
+    /**
+     * Tunable blast parameters.
+     */
+    public static final class Settings {
+        private final double radius;
+        private final double maxDamage;
+        private final double damageFalloff;
+        private final double knockback;
+        private final int maxVictims;
+
+        /**
+         * @param radius Blast radius in blocks.
+         * @param maxDamage Damage at the blast center with full exposure.
+         * @param damageFalloff Exponent applied to the impact (1 = linear falloff).
+         * @param knockback Knockback strength at the blast center with full exposure.
+         * @param maxVictims Maximum number of entities hit by a single blast.
+         */
+        public Settings(double radius, double maxDamage, double damageFalloff, double knockback, int maxVictims) {
+            this.radius = radius;
+            this.maxDamage = maxDamage;
+            this.damageFalloff = damageFalloff;
+            this.knockback = knockback;
+            this.maxVictims = maxVictims;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.remag501.itemsbgs.manager;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.Map;
+
+/**
+ * Takes one unit of a used item out of the exact hand it was used from, and puts it back
+ * if the use fails afterwards.
+ *
+ * Only the hand slot is touched: no search through the inventory for a similar stack, and no
+ * full inventory resync. The stack returned by {@code PlayerInventory#getItem(EquipmentSlot)}
+ * is a live view of the slot, so changing its amount is the whole update; the server's regular
+ * container sync then sends just that slot to the client.
+ * Must only be used from the main thread.
+ */
+public class ConsumptionService {
+
+    /**
+     * Takes one unit from a hand slot.
+     * @param hand The hand the item was used from (PlayerInteractEvent#getHand).
+     * @param expected The item that was used, to check the slot still holds it.
+     * @return The stack the unit was taken from, to pass to {@link #refund}, or null if the slot
+     *         no longer holds the item (nothing was taken).
+     */
+    public ItemStack consume(Player player, EquipmentSlot hand, ItemStack expected) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack stack = inventory.getItem(hand);
+        if (stack == null || stack.getType() != expected.getType() || stack.getAmount() <= 0) {
+            return null;
+        }
+
+        int amount = stack.getAmount();
+        if (amount == 1) {
+            // Empty the slot; the detached stack keeps its single unit in case of a refund
+            inventory.setItem(hand, null);
+        } else {
+            stack.setAmount(amount - 1);
+        }
+        return stack;
+    }
+
+    /**
+     * Puts back the unit taken by {@link #consume}, e.g. when the throw failed after consumption.
+     * @param consumed The stack returned by consume.
+     */
+    public void refund(Player player, EquipmentSlot hand, ItemStack consumed) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack current = inventory.getItem(hand);
+        if (current == null || current.getType() == Material.AIR) {
+            // The last unit was taken, the detached stack still holds it
+            consumed.setAmount(1);
+            inventory.setItem(hand, consumed);
+        } else if (current.isSimilar(consumed) && current.getAmount() < current.getMaxStackSize()) {
+            current.setAmount(current.getAmount() + 1);
+        } else {
+            // The hand changed in between, hand the unit back anywhere
+            ItemStack unit = consumed.clone();
+            unit.setAmount(1);
+            Map<Integer, ItemStack> leftover = inventory.addItem(unit);
+            for (ItemStack stack : leftover.values()) {
+                player.getWorld().dropItemNaturally(player.getLocation(), stack);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package me.remag501.itemsbgs.manager;
+
+import me.remag501.itemsbgs.runnable.TickMonitor;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-player, per-item cooldowns with a small burst allowance (a token bucket).
+ *
+ * The bucket is stored as a single tick timestamp per item (the generic cell rate algorithm):
+ * a use is allowed while the stored "theoretical arrival time" is no more than
+ * {@code (burst - 1) * interval} ticks ahead of now, and every use pushes it forward by one
+ * interval. Each player has one AtomicLongArray indexed by the item's index, so state is
+ * primitive, compact and updated lock-free with compare-and-set.
+ */
+public class CooldownManager {
+
+    private static final int INITIAL_SLOTS = 8;
+
+    private final TickMonitor tickMonitor;
+    private final Map<UUID, AtomicLongArray> states = new ConcurrentHashMap<>();
+
+    public CooldownManager(TickMonitor tickMonitor) {
+        this.tickMonitor = tickMonitor;
+    }
+
+    /**
+     * Takes one use from the player's bucket for an item.
+     * @param itemIndex The item's index from ItemManager#getItemIndex.
+     * @param intervalTicks Ticks it takes to regain one use.
+     * @param burst How many uses can be made back to back.
+     * @return true if the use is allowed, false if the player is on cooldown.
+     */
+    public boolean tryAcquire(Player player, int itemIndex, int intervalTicks, int burst) {
+        AtomicLongArray state = stateFor(player.getUniqueId(), itemIndex);
+        long now = tickMonitor.getCurrentTick();
+        long tolerance = (long) (Math.max(1, burst) - 1) * intervalTicks;
+
+        while (true) {
+            long arrival = state.get(itemIndex);
+            if (arrival - tolerance > now) {
+                return false;
+            }
+            long next = Math.max(arrival, now) + intervalTicks;
+            if (state.compareAndSet(itemIndex, arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a use taken by {@link #tryAcquire} (e.g., when the throw had no valid target).
+     */
+    public void refund(Player player, int itemIndex, int intervalTicks) {
+        AtomicLongArray state = states.get(player.getUniqueId());
+        if (state == null || itemIndex >= state.length()) {
+            return;
+        }
+        state.addAndGet(itemIndex, -intervalTicks);
+    }
+
+    /**
+     * Forgets all cooldowns of a player (e.g., when they leave).
+     */
+    public void clear(Player player) {
+        states.remove(player.getUniqueId());
+    }
+
+    /**
+     * @return The number of players with cooldown state.
+     */
+    public int size() {
+        return states.size();
+    }
+
+    private AtomicLongArray stateFor(UUID playerId, int itemIndex) {
+        AtomicLongArray state = states.get(playerId);
+        if (state != null && itemIndex < state.length()) {
+            return state;
+        }
+
+        // Grow (or create) the player's array so the item index fits
+        return states.compute(playerId, (id, current) -> {
+            if (current != null && itemIndex < current.length()) {
+                return current;
+            }
+            int length = Math.max(INITIAL_SLOTS, Integer.highestOneBit(itemIndex) << 1);
+            AtomicLongArray grown = new AtomicLongArray(length);
+            if (current != null) {
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+            }
+            return grown;
+        });
+    }
+}
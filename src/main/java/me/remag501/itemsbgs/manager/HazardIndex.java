@@ -0,0 +1,372 @@
+package me.remag501.itemsbgs.manager;
+
+import me.remag501.itemsbgs.api.Hazard;
+import me.remag501.itemsbgs.api.HazardService;
+import me.remag501.itemsbgs.api.HazardType;
+import me.remag501.itemsbgs.util.BlockKey;
+import me.remag501.itemsbgs.util.LongObjectMap;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-world chunk grid of active hazard areas (molotov fires and tear gas clouds).
+ * Every hazard is stored in each chunk cell its area overlaps, so a point query is a
+ * single cell lookup. Published to other plugins as the {@link HazardService}.
+ * Must only be used from the main thread.
+ */
+public class HazardIndex implements HazardService, LifecycleOwner {
+
+    private final Map<UUID, LongObjectMap<List<HazardRecord>>> grid = new HashMap<>();
+    private final List<HazardRecord> records = new ArrayList<>();
+    // Marks records already returned by the current hazardsNear query
+    private long queryStamp = 0;
+
+    /**
+     * Adds a box-shaped hazard.
+     * @param expiresAt World game time at which the hazard ends, or Long.MAX_VALUE to end it with {@link #remove}.
+     * @return The record, which can be updated or removed later.
+     */
+    public HazardRecord addBox(HazardType type, World world, double minX, double minY, double minZ,
+                               double maxX, double maxY, double maxZ, long expiresAt) {
+        HazardRecord record = new HazardRecord(type, world, minX, minY, minZ, maxX, maxY, maxZ, 0, expiresAt);
+        insert(record);
+        return record;
+    }
+
+    /**
+     * Adds a vertical cylinder-shaped hazard (e.g., a gas cloud).
+     * @param maxRadius The largest radius the hazard will reach, used to choose its cells.
+     * @param expiresAt World game time at which the hazard ends, or Long.MAX_VALUE to end it with {@link #remove}.
+     * @return The record, whose radius can be updated as the hazard shrinks.
+     */
+    public HazardRecord addCylinder(HazardType type, World world, double centerX, double centerY, double centerZ,
+                                    double maxRadius, double halfHeight, long expiresAt) {
+        HazardRecord record = new HazardRecord(type, world,
+                centerX - maxRadius, centerY - halfHeight, centerZ - maxRadius,
+                centerX + maxRadius, centerY + halfHeight, centerZ + maxRadius, maxRadius, expiresAt);
+        insert(record);
+        return record;
+    }
+
+    /**
+     * Removes a hazard before its expiry.
+     */
+    public void remove(HazardRecord record) {
+        if (record.removed) {
+            return;
+        }
+        record.removed = true;
+        records.remove(record);
+        unlinkCells(record);
+    }
+
+    /**
+     * Removes every hazard whose expiry has passed. Run periodically.
+     */
+    public void purgeExpired() {
+        for (int i = records.size() - 1; i >= 0; i--) {
+            HazardRecord record = records.get(i);
+            if (record.isExpired()) {
+                removeAt(i, record);
+            }
+        }
+    }
+
+    /**
+     * Swap-removes the record at an index, the order of the record list doesn't matter.
+     */
+    private void removeAt(int index, HazardRecord record) {
+        record.removed = true;
+        int last = records.size() - 1;
+        records.set(index, records.get(last));
+        records.remove(last);
+        unlinkCells(record);
+    }
+
+    /**
+     * Removes every hazard. Called when the plugin is disabled.
+     */
+    public void clear() {
+        for (HazardRecord record : records) {
+            record.removed = true;
+        }
+        records.clear();
+        grid.clear();
+    }
+
+    @Override
+    public boolean isInHazard(World world, double x, double y, double z) {
+        return findAt(world, x, y, z, null);
+    }
+
+    @Override
+    public boolean isInHazard(World world, double x, double y, double z, HazardType type) {
+        return findAt(world, x, y, z, type);
+    }
+
+    @Override
+    public int hazardsNear(World world, double x, double y, double z, double radius, Hazard[] out) {
+        LongObjectMap<List<HazardRecord>> cells = grid.get(world.getUID());
+        if (cells == null || out.length == 0) {
+            return 0;
+        }
+
+        long stamp = ++queryStamp;
+        int found = 0;
+        int minChunkX = (int) Math.floor(x - radius) >> 4;
+        int maxChunkX = (int) Math.floor(x + radius) >> 4;
+        int minChunkZ = (int) Math.floor(z - radius) >> 4;
+        int maxChunkZ = (int) Math.floor(z + radius) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<HazardRecord> cell = cells.get(BlockKey.packChunk(chunkX, chunkZ));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    HazardRecord record = cell.get(i);
+                    // A hazard spanning several cells is only reported once
+                    if (record.queryStamp == stamp || record.isExpired() || !record.isWithin(x, y, z, radius)) {
+                        continue;
+                    }
+                    record.queryStamp = stamp;
+                    out[found++] = record;
+                    if (found == out.length) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public String getName() {
+        return "hazards";
+    }
+
+    @Override
+    public int getLiveCount() {
+        return records.size();
+    }
+
+    /**
+     * Removes the hazards centered in an unloading chunk (their fire or cloud is gone with it).
+     */
+    @Override
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+        for (int i = records.size() - 1; i >= 0; i--) {
+            HazardRecord record = records.get(i);
+            if (record.world == world
+                    && (int) Math.floor((record.minX + record.maxX) / 2) >> 4 == chunkX
+                    && (int) Math.floor((record.minZ + record.maxZ) / 2) >> 4 == chunkZ) {
+                removeAt(i, record);
+            }
+        }
+    }
+
+    @Override
+    public void releaseWorld(World world) {
+        for (int i = records.size() - 1; i >= 0; i--) {
+            HazardRecord record = records.get(i);
+            if (record.world == world) {
+                removeAt(i, record);
+            }
+        }
+        grid.remove(world.getUID());
+    }
+
+    @Override
+    public void releaseAll() {
+        clear();
+    }
+
+    private boolean findAt(World world, double x, double y, double z, HazardType type) {
+        LongObjectMap<List<HazardRecord>> cells = grid.get(world.getUID());
+        if (cells == null) {
+            return false;
+        }
+
+        List<HazardRecord> cell = cells.get(BlockKey.chunkOf((int) Math.floor(x), (int) Math.floor(z)));
+        if (cell == null) {
+            return false;
+        }
+
+        for (int i = 0; i < cell.size(); i++) {
+            HazardRecord record = cell.get(i);
+            if ((type == null || record.type == type) && !record.isExpired() && record.contains(x, y, z)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void insert(HazardRecord record) {
+        records.add(record);
+        LongObjectMap<List<HazardRecord>> cells = grid.computeIfAbsent(record.world.getUID(), uid -> new LongObjectMap<>());
+        for (int chunkX = record.minChunkX(); chunkX <= record.maxChunkX(); chunkX++) {
+            for (int chunkZ = record.minChunkZ(); chunkZ <= record.maxChunkZ(); chunkZ++) {
+                long key = BlockKey.packChunk(chunkX, chunkZ);
+                List<HazardRecord> cell = cells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<>(2);
+                    cells.put(key, cell);
+                }
+                cell.add(record);
+            }
+        }
+    }
+
+    private void unlinkCells(HazardRecord record) {
+        LongObjectMap<List<HazardRecord>> cells = grid.get(record.world.getUID());
+        if (cells == null) {
+            return;
+        }
+        for (int chunkX = record.minChunkX(); chunkX <= record.maxChunkX(); chunkX++) {
+            for (int chunkZ = record.minChunkZ(); chunkZ <= record.maxChunkZ(); chunkZ++) {
+                long key = BlockKey.packChunk(chunkX, chunkZ);
+                List<HazardRecord> cell = cells.get(key);
+                if (cell != null) {
+                    cell.remove(record);
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+        if (cells.isEmpty()) {
+            grid.remove(record.world.getUID());
+        }
+    }
+
+    /**
+     * A single hazard area. Box-shaped, or a vertical cylinder when it has a radius.
+     */
+    public static final class HazardRecord implements Hazard {
+        private final HazardType type;
+        private final World world;
+        private final double minX;
+        private final double minY;
+        private final double minZ;
+        private final double maxX;
+        private final double maxY;
+        private final double maxZ;
+        private final long expiresAt;
+        private double radius;
+        private boolean removed = false;
+        private long queryStamp = 0;
+
+        private HazardRecord(HazardType type, World world, double minX, double minY, double minZ,
+                             double maxX, double maxY, double maxZ, double radius, long expiresAt) {
+            this.type = type;
+            this.world = world;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.radius = radius;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Updates the current radius of a cylinder hazard. It must not exceed the radius it was added with.
+         */
+        public void setRadius(double radius) {
+            this.radius = radius;
+        }
+
+        @Override
+        public HazardType getType() {
+            return type;
+        }
+
+        @Override
+        public World getWorld() {
+            return world;
+        }
+
+        @Override
+        public double getMinX() {
+            return minX;
+        }
+
+        @Override
+        public double getMinY() {
+            return minY;
+        }
+
+        @Override
+        public double getMinZ() {
+            return minZ;
+        }
+
+        @Override
+        public double getMaxX() {
+            return maxX;
+        }
+
+        @Override
+        public double getMaxY() {
+            return maxY;
+        }
+
+        @Override
+        public double getMaxZ() {
+            return maxZ;
+        }
+
+        @Override
+        public boolean contains(double x, double y, double z) {
+            if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+                return false;
+            }
+            if (radius <= 0) {
+                return true;
+            }
+            double dx = x - (minX + maxX) / 2;
+            double dz = z - (minZ + maxZ) / 2;
+            return dx * dx + dz * dz <= radius * radius;
+        }
+
+        private boolean isWithin(double x, double y, double z, double distance) {
+            // Distance from the point to the closest point of the box
+            double dx = Math.max(0, Math.max(minX - x, x - maxX));
+            double dy = Math.max(0, Math.max(minY - y, y - maxY));
+            double dz = Math.max(0, Math.max(minZ - z, z - maxZ));
+            return dx * dx + dy * dy + dz * dz <= distance * distance;
+        }
+
+        private boolean isExpired() {
+            return removed || world.getGameTime() >= expiresAt;
+        }
+
+        private int minChunkX() {
+            return (int) Math.floor(minX) >> 4;
+        }
+
+        private int maxChunkX() {
+            return (int) Math.floor(maxX) >> 4;
+        }
+
+        private int minChunkZ() {
+            return (int) Math.floor(minZ) >> 4;
+        }
+
+        private int maxChunkZ() {
+            return (int) Math.floor(maxZ) >> 4;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package me.remag501.itemsbgs.manager;
+
+import me.remag501.itemsbgs.item.CustomItem;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers the last custom item stack each player used, so repeated clicks with the same
+ * stack resolve to a CustomItem without reading the PersistentDataContainer again.
+ *
+ * The hit check uses ItemStack#isSimilar, which on server stacks compares the underlying
+ * item handles and tags directly instead of cloning the ItemMeta. Stacks whose material is
+ * not used by any registered item are rejected before the cache is consulted at all.
+ * The cache keeps a copy of the stack, never the stack it was given: server stacks are live
+ * views of their slot, so a cached view would follow in-place tag edits and always match.
+ * Entries resolved before the items were reloaded are treated as misses.
+ * Must only be used from the main thread.
+ */
+public class HeldItemCache {
+
+    private final ItemManager itemManager;
+    private final Map<UUID, CachedStack> lastResolved = new HashMap<>();
+
+    public HeldItemCache(ItemManager itemManager) {
+        this.itemManager = itemManager;
+    }
+
+    /**
+     * Resolves the stack a player is holding to its CustomItem.
+     * @param player The player holding the stack.
+     * @param held The held ItemStack.
+     * @return The CustomItem, or null if the stack is not a custom item.
+     */
+    public CustomItem resolve(Player player, ItemStack held) {
+        if (held == null || !itemManager.isItemMaterial(held.getType())) {
+            return null;
+        }
+
+        CachedStack cached = lastResolved.get(player.getUniqueId());
+        int generation = itemManager.getGeneration();
+        if (cached != null && cached.generation == generation && cached.stack.isSimilar(held)) {
+            return cached.item;
+        }
+
+        CustomItem customItem = itemManager.getCustomItem(held);
+        if (customItem == null) {
+            return null;
+        }
+
+        // Reuse the player's entry instead of allocating a new one on every miss
+        if (cached == null) {
+            cached = new CachedStack();
+            lastResolved.put(player.getUniqueId(), cached);
+        }
+        // Cloning a server stack copies its handle, so hit checks stay on the fast path
+        cached.stack = held.clone();
+        cached.item = customItem;
+        cached.generation = generation;
+        return customItem;
+    }
+
+    /**
+     * Forgets the cached stack of a player (e.g., when they leave).
+     */
+    public void invalidate(Player player) {
+        lastResolved.remove(player.getUniqueId());
+    }
+
+    /**
+     * Forgets every cached stack (e.g., when the registered items change).
+     */
+    public void clear() {
+        lastResolved.clear();
+    }
+
+    private static final class CachedStack {
+        private ItemStack stack;
+        private CustomItem item;
+        private int generation;
+    }
+}
@@ -0,0 +1,279 @@
+package me.remag501.itemsbgs.manager;
+
+import me.remag501.itemsbgs.item.CustomItem;
+import me.remag501.itemsbgs.item.GrenadeItem;
+import me.remag501.itemsbgs.item.ItemSpec;
+import me.remag501.itemsbgs.item.MolotovItem;
+import me.remag501.itemsbgs.item.TearGasItem;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles items.yml into ready-to-register CustomItem instances.
+ * Everything is parsed and validated here, once, so nothing on the event path reads the config.
+ * Does not touch the server, so it can run off the main thread.
+ */
+public class ItemDefinitionLoader {
+
+    // IDs are typed in commands and stored in item tags
+    private static final Pattern ID_PATTERN = Pattern.compile("[a-z0-9_]+");
+    private static final int MAX_RANGE = 128;
+    // A kit may hold up to a full inventory of one item
+    private static final int MAX_KIT_AMOUNT = 36 * 64;
+
+    /**
+     * Reads and compiles an items file.
+     * @param file The items.yml file.
+     * @return The compiled items and every problem found. Invalid items are left out.
+     */
+    public Result load(File file) {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.load(file);
+        } catch (IOException | InvalidConfigurationException e) {
+            return new Result(new ArrayList<>(), new LinkedHashMap<>(), List.of("Could not read " + file.getName() + ": " + e.getMessage()));
+        }
+        return load(config.getConfigurationSection("items"), config.getConfigurationSection("kits"));
+    }
+
+    /**
+     * Compiles the "items" section of items.yml.
+     * @param itemsSection The section, may be null (no items).
+     * @return The compiled items and every problem found. Invalid items are left out.
+     */
+    public Result load(ConfigurationSection itemsSection) {
+        return load(itemsSection, null);
+    }
+
+    /**
+     * Compiles the "items" and "kits" sections of items.yml.
+     * @param itemsSection The items section, may be null (no items).
+     * @param kitsSection The kits section, may be null (no kits).
+     * @return The compiled items and kits and every problem found. Invalid items and kits are left out.
+     */
+    public Result load(ConfigurationSection itemsSection, ConfigurationSection kitsSection) {
+        List<CustomItem> items = new ArrayList<>();
+        Map<String, Map<String, Integer>> kits = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        if (itemsSection == null) {
+            errors.add("No 'items' section found.");
+            return new Result(items, kits, errors);
+        }
+
+        for (String id : itemsSection.getKeys(false)) {
+            ConfigurationSection section = itemsSection.getConfigurationSection(id);
+            if (section == null) {
+                errors.add(id + ": expected a section.");
+                continue;
+            }
+            int errorCount = errors.size();
+            CustomItem item = compile(id, section, errors);
+            if (item != null && errors.size() == errorCount) {
+                items.add(item);
+            }
+        }
+
+        if (kitsSection != null) {
+            Set<String> itemIds = new HashSet<>();
+            for (CustomItem item : items) {
+                itemIds.add(item.getId());
+            }
+            for (String name : kitsSection.getKeys(false)) {
+                Map<String, Integer> kit = compileKit(name, kitsSection.getConfigurationSection(name), itemIds, errors);
+                if (kit != null) {
+                    kits.put(name, kit);
+                }
+            }
+        }
+        return new Result(items, kits, errors);
+    }
+
+    /**
+     * Compiles a kit: item IDs with the quantity of each.
+     */
+    private Map<String, Integer> compileKit(String name, ConfigurationSection section, Set<String> itemIds, List<String> errors) {
+        String kitName = "kit " + name;
+        if (!ID_PATTERN.matcher(name).matches()) {
+            errors.add(kitName + ": names may only use lowercase letters, digits and '_'.");
+            return null;
+        }
+        if (section == null || section.getKeys(false).isEmpty()) {
+            errors.add(kitName + ": expected item IDs with an amount each.");
+            return null;
+        }
+
+        int errorCount = errors.size();
+        Map<String, Integer> kit = new LinkedHashMap<>();
+        for (String itemId : section.getKeys(false)) {
+            if (!itemIds.contains(itemId)) {
+                errors.add(kitName + ": unknown item '" + itemId + "'.");
+                continue;
+            }
+            kit.put(itemId, readInt(kitName, section, itemId, 1, 1, MAX_KIT_AMOUNT, errors));
+        }
+        return errors.size() == errorCount ? Collections.unmodifiableMap(kit) : null;
+    }
+
+    private CustomItem compile(String id, ConfigurationSection section, List<String> errors) {
+        if (!ID_PATTERN.matcher(id).matches()) {
+            errors.add(id + ": IDs may only use lowercase letters, digits and '_'.");
+            return null;
+        }
+
+        // The type picks the behavior, and with it the defaults for anything left out
+        String type = section.getString("type", id).toLowerCase();
+        ItemSpec defaults;
+        switch (type) {
+            case MolotovItem.TYPE -> defaults = MolotovItem.DEFAULT_SPEC;
+            case TearGasItem.TYPE -> defaults = TearGasItem.DEFAULT_SPEC;
+            case GrenadeItem.TYPE -> defaults = GrenadeItem.DEFAULT_SPEC;
+            default -> {
+                errors.add(id + ": unknown type '" + type + "'.");
+                return null;
+            }
+        }
+
+        ItemSpec spec = compileSpec(id, type, section, defaults, errors);
+        if (spec == null) {
+            return null;
+        }
+
+        switch (type) {
+            case MolotovItem.TYPE -> {
+                MolotovItem.Settings d = MolotovItem.Settings.DEFAULTS;
+                return new MolotovItem(spec, new MolotovItem.Settings(
+                        readInt(id, section, "fire-radius", d.getFireRadius(), 0, 8, errors),
+                        readInt(id, section, "fire-duration-ticks", d.getFireDurationTicks(), 1, 20 * 60, errors),
+                        readInt(id, section, "activation-ticks", d.getActivationTicks(), 0, 200, errors),
+                        readInt(id, section, "proc-delay-ticks", d.getProcDelayTicks(), 0, 200, errors),
+                        readInt(id, section, "failsafe-ticks", d.getFailsafeTicks(), 1, 20 * 30, errors)));
+            }
+            case TearGasItem.TYPE -> {
+                TearGasItem.Settings d = TearGasItem.Settings.DEFAULTS;
+                return new TearGasItem(spec, new TearGasItem.Settings(
+                        readInt(id, section, "activation-ticks", d.getActivationTicks(), 0, 200, errors),
+                        readInt(id, section, "proc-delay-ticks", d.getProcDelayTicks(), 0, 200, errors),
+                        readDouble(id, section, "stationary-velocity", d.getStationaryVelocity(), 0, 1, errors),
+                        readInt(id, section, "failsafe-ticks", d.getFailsafeTicks(), 1, 20 * 30, errors),
+                        readInt(id, section, "cloud-duration-ticks", d.getCloudDurationTicks(), 1, 20 * 60, errors),
+                        (float) readDouble(id, section, "cloud-radius", d.getCloudRadius(), 0.5, 16, errors),
+                        (float) readDouble(id, section, "cloud-radius-per-tick", d.getCloudRadiusPerTick(), -1, 1, errors),
+                        readInt(id, section, "cloud-wait-ticks", d.getCloudWaitTicks(), 0, 200, errors),
+                        readInt(id, section, "effect-duration-ticks", d.getEffectDurationTicks(), 1, 20 * 60, errors),
+                        readInt(id, section, "poison-amplifier", d.getPoisonAmplifier(), 0, 9, errors),
+                        readInt(id, section, "nausea-amplifier", d.getNauseaAmplifier(), 0, 9, errors)));
+            }
+            default -> {
+                return new GrenadeItem(spec);
+            }
+        }
+    }
+
+    private ItemSpec compileSpec(String id, String type, ConfigurationSection section, ItemSpec defaults, List<String> errors) {
+        Material material = defaults.getMaterial();
+        String materialName = section.getString("material");
+        if (materialName != null) {
+            material = Material.matchMaterial(materialName);
+            if (material == null || !material.isItem() || material.isAir()) {
+                errors.add(id + ": '" + materialName + "' is not an item material.");
+                return null;
+            }
+        }
+
+        String displayName = section.contains("display-name")
+                ? color(section.getString("display-name"))
+                : defaults.getDisplayName();
+        List<String> lore = defaults.getLore();
+        if (section.contains("lore")) {
+            lore = new ArrayList<>();
+            for (String line : section.getStringList("lore")) {
+                lore.add(color(line));
+            }
+        }
+
+        return new ItemSpec(id, type, material, displayName, lore,
+                readInt(id, section, "range", defaults.getRange(), 1, MAX_RANGE, errors),
+                readInt(id, section, "cooldown-ticks", defaults.getCooldownTicks(), 0, 20 * 60 * 10, errors),
+                readInt(id, section, "cooldown-burst", defaults.getCooldownBurst(), 1, 64, errors));
+    }
+
+    private static int readInt(String id, ConfigurationSection section, String key, int def, int min, int max, List<String> errors) {
+        if (!section.contains(key)) {
+            return def;
+        }
+        if (!section.isInt(key)) {
+            errors.add(id + ": '" + key + "' must be a whole number.");
+            return def;
+        }
+        int value = section.getInt(key);
+        if (value < min || value > max) {
+            errors.add(id + ": '" + key + "' must be between " + min + " and " + max + " (was " + value + ").");
+            return def;
+        }
+        return value;
+    }
+
+    private static double readDouble(String id, ConfigurationSection section, String key, double def, double min, double max, List<String> errors) {
+        if (!section.contains(key)) {
+            return def;
+        }
+        if (!section.isDouble(key) && !section.isInt(key)) {
+            errors.add(id + ": '" + key + "' must be a number.");
+            return def;
+        }
+        double value = section.getDouble(key);
+        if (value < min || value > max) {
+            errors.add(id + ": '" + key + "' must be between " + min + " and " + max + " (was " + value + ").");
+            return def;
+        }
+        return value;
+    }
+
+    private static String color(String text) {
+        return ChatColor.translateAlternateColorCodes('&', text);
+    }
+
+    /**
+     * The outcome of a load: the valid items and kits and the problems with the rest.
+     */
+    public static final class Result {
+        private final List<CustomItem> items;
+        private final Map<String, Map<String, Integer>> kits;
+        private final List<String> errors;
+
+        private Result(List<CustomItem> items, Map<String, Map<String, Integer>> kits, List<String> errors) {
+            this.items = Collections.unmodifiableList(items);
+            this.kits = Collections.unmodifiableMap(kits);
+            this.errors = Collections.unmodifiableList(errors);
+        }
+
+        public List<CustomItem> getItems() {
+            return items;
+        }
+
+        /**
+         * @return The quantity per item ID, by kit name.
+         */
+        public Map<String, Map<String, Integer>> getKits() {
+            return kits;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+}
@@ -1,36 +1,109 @@
 package me.remag501.itemsbgs.manager;
 
-import me.remag501.itemsbgs.ItemsBGS;
 import me.remag501.itemsbgs.item.CustomItem;
+import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
 
 /**
  * Centralized manager for registering, retrieving, and identifying custom items.
+ *
+ * The registered items live in an immutable Registry snapshot. A new snapshot can be built
+ * on any thread and is swapped in with a single volatile write, so lookups never lock and
+ * never see a half-built set of items.
  */
 public class ItemManager {
 
     // Key used in PersistentDataContainer to store the item's unique ID
     private final NamespacedKey itemKey;
-    private final Map<String, CustomItem> registeredItems = new HashMap<>();
+    private final Logger logger;
+    // The items currently in use, replaced as a whole on reload
+    private volatile Registry registry = new Registry(new LinkedHashMap<>(), new HashMap<>(), EnumSet.noneOf(Material.class),
+            new LinkedHashMap<>());
+    // Bumped on every swap, so caches holding resolved items know they are stale
+    private volatile int generation;
+    // Small, stable index per item ID for per-item arrays (e.g., cooldowns).
+    // Kept across reloads so a reload doesn't shuffle the cooldowns of existing items.
+    private final Map<String, Integer> itemIndexes = new ConcurrentHashMap<>();
 
-    public ItemManager(ItemsBGS plugin) {
+    public ItemManager(Plugin plugin) {
         this.itemKey = new NamespacedKey(plugin, "custom_item_id");
+        this.logger = plugin.getLogger();
     }
 
     /**
-     * Registers a custom item instance. This should be done during plugin startup.
+     * Registers a single custom item instance on top of the current ones.
      * @param item The CustomItem implementation to register.
      */
     public void registerItem(CustomItem item) {
-        registeredItems.put(item.getId(), item);
-        ItemsBGS.getPlugin().getLogger().info("Registered custom item: " + item.getId());
+        List<CustomItem> items = new ArrayList<>(registry.items.values());
+        items.removeIf(existing -> existing.getId().equals(item.getId()));
+        items.add(item);
+        swap(buildRegistry(items, registry.kits));
+    }
+
+    /**
+     * Builds a registry snapshot with prebuilt item templates. Safe to call off the main thread,
+     * nothing is published until the snapshot is passed to {@link #swap(Registry)}.
+     * @param items The items, later duplicates of an ID replace earlier ones.
+     * @return The snapshot.
+     */
+    public Registry buildRegistry(List<CustomItem> items) {
+        return buildRegistry(items, new LinkedHashMap<>());
+    }
+
+    /**
+     * Builds a registry snapshot with prebuilt item templates and kits. Safe to call off the main thread.
+     * @param items The items, later duplicates of an ID replace earlier ones.
+     * @param kits The quantity per item ID, by kit name.
+     * @return The snapshot.
+     */
+    public Registry buildRegistry(List<CustomItem> items, Map<String, Map<String, Integer>> kits) {
+        Map<String, CustomItem> byId = new LinkedHashMap<>();
+        Map<String, ItemStack> templates = new HashMap<>();
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        for (CustomItem item : items) {
+            ItemStack template = buildTemplate(item);
+            byId.put(item.getId(), item);
+            templates.put(item.getId(), template);
+            materials.add(template.getType());
+        }
+        return new Registry(byId, templates, materials, new LinkedHashMap<>(kits));
+    }
+
+    /**
+     * Makes a snapshot the current set of items. Must be called from the main thread,
+     * so an event handler always sees either the old or the new items, never a mix.
+     * @param next The snapshot built by {@link #buildRegistry(List)}.
+     */
+    public void swap(Registry next) {
+        for (String id : next.items.keySet()) {
+            itemIndexes.putIfAbsent(id, itemIndexes.size());
+        }
+        registry = next;
+        generation++;
+        logger.info("Registered custom items: " + String.join(", ", next.items.keySet()));
+    }
+
+    /**
+     * @return A counter that changes every time the registered items are replaced.
+     */
+    public int getGeneration() {
+        return generation;
     }
 
     /**
@@ -39,7 +112,17 @@ public class ItemManager {
      * @return The CustomItem object, or null if not found.
      */
     public CustomItem getItemById(String id) {
-        return registeredItems.get(id);
+        return registry.items.get(id);
+    }
+
+    /**
+     * Gets the stable index of a registered item, for use in per-item arrays.
+     * @param id The unique identifier string.
+     * @return The index, or -1 if the item is not registered.
+     */
+    public int getItemIndex(String id) {
+        Integer index = itemIndexes.get(id);
+        return index == null ? -1 : index;
     }
 
     /**
@@ -48,7 +131,7 @@ public class ItemManager {
      * @return The item's unique ID, or null if it's not a custom item.
      */
     public String getCustomItemId(ItemStack item) {
-        if (item == null || !item.hasItemMeta()) {
+        if (item == null || !isItemMaterial(item.getType()) || !item.hasItemMeta()) {
             return null;
         }
 
@@ -56,29 +139,148 @@ public class ItemManager {
         return meta.getPersistentDataContainer().get(itemKey, PersistentDataType.STRING);
     }
 
+    /**
+     * Resolves an ItemStack directly to its registered CustomItem.
+     * @param item The ItemStack to check.
+     * @return The CustomItem, or null if it's not a (registered) custom item.
+     */
+    public CustomItem getCustomItem(ItemStack item) {
+        String id = getCustomItemId(item);
+        return id == null ? null : registry.items.get(id);
+    }
+
+    /**
+     * Cheap pre-check that doesn't touch the item meta.
+     * @param material The material of the ItemStack to check.
+     * @return true if at least one registered item uses this material.
+     */
+    public boolean isItemMaterial(Material material) {
+        return registry.materials.contains(material);
+    }
+
+    /**
+     * Builds the template stack for an item once: display name, lore and the PDC id.
+     */
+    private ItemStack buildTemplate(CustomItem customItem) {
+        ItemStack stack = customItem.getItem(1);
+        // Apply the unique ID to the PersistentDataContainer
+        ItemMeta meta = stack.getItemMeta();
+        meta.getPersistentDataContainer().set(itemKey, PersistentDataType.STRING, customItem.getId());
+        stack.setItemMeta(meta);
+        return stack;
+    }
+
     /**
      * Creates a new instance of the custom item with the given amount.
+     * The stack is cloned from a prebuilt template, so no meta is rebuilt.
      * @param id The ID of the item to create.
      * @param amount The quantity.
      * @return The ItemStack, or null if the ID is invalid.
      */
     public ItemStack createItemStack(String id, int amount) {
-        CustomItem customItem = getItemById(id);
-        if (customItem != null) {
-            ItemStack stack = customItem.getItem(amount);
-            // Apply the unique ID to the PersistentDataContainer
-            ItemMeta meta = stack.getItemMeta();
-            meta.getPersistentDataContainer().set(itemKey, PersistentDataType.STRING, id);
-            stack.setItemMeta(meta);
-            return stack;
+        ItemStack template = registry.templates.get(id);
+        if (template == null) {
+            return null;
+        }
+
+        ItemStack stack = template.clone();
+        stack.setAmount(amount);
+        return stack;
+    }
+
+    /**
+     * Creates any amount of a custom item, split into full stacks (e.g., for kits and loadouts).
+     * @param id The ID of the item to create.
+     * @param amount The total quantity, may exceed the max stack size.
+     * @return The stacks, or null if the ID is invalid.
+     */
+    public List<ItemStack> createItemStacks(String id, int amount) {
+        ItemStack template = registry.templates.get(id);
+        if (template == null) {
+            return null;
+        }
+
+        List<ItemStack> stacks = new ArrayList<>(amount / template.getMaxStackSize() + 1);
+        addStacks(stacks, template, amount);
+        return stacks;
+    }
+
+    /**
+     * Creates several custom items at once, split into full stacks.
+     * Unknown IDs are skipped.
+     * @param amounts The total quantity per item ID.
+     * @return The stacks, in the iteration order of the given map.
+     */
+    public List<ItemStack> createItemStacks(Map<String, Integer> amounts) {
+        List<ItemStack> stacks = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : amounts.entrySet()) {
+            ItemStack template = registry.templates.get(entry.getKey());
+            if (template != null) {
+                addStacks(stacks, template, entry.getValue());
+            }
+        }
+        return stacks;
+    }
+
+    private void addStacks(List<ItemStack> stacks, ItemStack template, int amount) {
+        int maxStackSize = template.getMaxStackSize();
+        while (amount > 0) {
+            ItemStack stack = template.clone();
+            stack.setAmount(Math.min(amount, maxStackSize));
+            stacks.add(stack);
+            amount -= maxStackSize;
         }
-        return null;
     }
 
     /**
      * @return A set of all registered item IDs.
      */
     public Set<String> getRegisteredIds() {
-        return registeredItems.keySet();
+        return registry.items.keySet();
+    }
+
+    /**
+     * Gets the contents of a kit, to pass to {@link #createItemStacks(Map)}.
+     * @param name The kit name.
+     * @return The quantity per item ID, or null if there is no such kit.
+     */
+    public Map<String, Integer> getKit(String name) {
+        return registry.kits.get(name);
+    }
+
+    /**
+     * @return The names of all kits.
+     */
+    public Set<String> getKitNames() {
+        return registry.kits.keySet();
+    }
+
+    /**
+     * An immutable set of registered items with their templates.
+     */
+    public static final class Registry {
+        private final Map<String, CustomItem> items;
+        // Fully built stacks (name, lore and PDC id) per item ID. Never handed out directly, only cloned.
+        private final Map<String, ItemStack> templates;
+        // Materials used by at least one item. Anything else can't be a custom item,
+        // so it is rejected before touching (and cloning) the item meta.
+        private final Set<Material> materials;
+        // Quantity per item ID, by kit name
+        private final Map<String, Map<String, Integer>> kits;
+
+        private Registry(Map<String, CustomItem> items, Map<String, ItemStack> templates, Set<Material> materials,
+                         Map<String, Map<String, Integer>> kits) {
+            this.items = Collections.unmodifiableMap(items);
+            this.templates = templates;
+            this.materials = materials;
+            this.kits = Collections.unmodifiableMap(kits);
+        }
+
+        /**
+         * @return The number of items in this snapshot.
+         */
+        public int size() {
+            return items.size();
+        }
     }
 }
@@ -0,0 +1,36 @@
+package me.remag501.itemsbgs.manager;
+
+import org.bukkit.World;
+
+/**
+ * A component that owns things placed in a world (projectile entities, fire blocks, clouds, cached data).
+ * Every owner is registered with the LifecycleRegistry, which tells it when to let go of them.
+ * All methods are called from the main thread.
+ */
+public interface LifecycleOwner {
+
+    /**
+     * @return A short name for the stats output (e.g., "fire blocks").
+     */
+    String getName();
+
+    /**
+     * @return The number of things this owner currently holds.
+     */
+    int getLiveCount();
+
+    /**
+     * Releases everything inside a chunk that is about to unload. The chunk is still loaded during the call.
+     */
+    void releaseChunk(World world, int chunkX, int chunkZ);
+
+    /**
+     * Releases everything inside a world that is about to unload.
+     */
+    void releaseWorld(World world);
+
+    /**
+     * Releases everything. Called when the plugin is disabled.
+     */
+    void releaseAll();
+}
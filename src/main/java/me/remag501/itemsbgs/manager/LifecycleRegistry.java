@@ -0,0 +1,71 @@
+package me.remag501.itemsbgs.manager;
+
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The single place that releases what the plugin leaves in the world.
+ * Owners are released in registration order, so an owner that hands work to another
+ * (e.g., queued fire placements that end up in the fire expiry wheel) must be registered first.
+ * Must only be used from the main thread.
+ */
+public class LifecycleRegistry {
+
+    private final List<LifecycleOwner> owners = new ArrayList<>();
+
+    public void register(LifecycleOwner owner) {
+        owners.add(owner);
+    }
+
+    /**
+     * @return The registered owners, in release order.
+     */
+    public List<LifecycleOwner> getOwners() {
+        return Collections.unmodifiableList(owners);
+    }
+
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+        for (LifecycleOwner owner : owners) {
+            owner.releaseChunk(world, chunkX, chunkZ);
+        }
+    }
+
+    public void releaseWorld(World world) {
+        for (LifecycleOwner owner : owners) {
+            owner.releaseWorld(world);
+        }
+    }
+
+    public void releaseAll() {
+        for (LifecycleOwner owner : owners) {
+            owner.releaseAll();
+        }
+    }
+
+    /**
+     * @return The live count of every owner, by name.
+     */
+    public Map<String, Integer> getLiveCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (LifecycleOwner owner : owners) {
+            counts.put(owner.getName(), owner.getLiveCount());
+        }
+        return counts;
+    }
+
+    /**
+     * @return The total number of things held by all owners. Should drop back to zero once the world is quiet.
+     */
+    public int getLiveTotal() {
+        int total = 0;
+        for (LifecycleOwner owner : owners) {
+            total += owner.getLiveCount();
+        }
+        return total;
+    }
+}
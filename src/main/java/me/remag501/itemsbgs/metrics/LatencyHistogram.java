@@ -0,0 +1,101 @@
+package me.remag501.itemsbgs.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size latency histogram with one bucket per power of two nanoseconds.
+ * Recording is a bucket index computation and two atomic adds, with no allocation and no locks.
+ * Percentiles are therefore approximate (reported as the upper bound of the bucket).
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one sample.
+     * @param nanos The measured duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        // Bucket b holds samples in [2^(b-1), 2^b)
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+        totalNanos.addAndGet(nanos);
+
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * @return The number of recorded samples.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            count += buckets.get(bucket);
+        }
+        return count;
+    }
+
+    /**
+     * @return The average sample in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.get() / count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Estimates a percentile from the buckets.
+     * @param fraction The percentile as a fraction (e.g., 0.99).
+     * @return The upper bound of the bucket holding the percentile, in nanoseconds.
+     */
+    public long getPercentileNanos(double fraction) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(count * fraction);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                return Math.min(bucket == 0 ? 0 : (1L << bucket) - 1, maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Clears every sample.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            buckets.set(bucket, 0);
+        }
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
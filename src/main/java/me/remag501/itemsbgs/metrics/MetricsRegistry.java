@@ -0,0 +1,140 @@
+package me.remag501.itemsbgs.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Hot-path metrics for the plugin, read by the /itemsbgs stats command.
+ *
+ * Writers only touch LongAdder counters and fixed-bucket histograms, so recording is lock-free
+ * and allocation-free. Live sizes (projectiles, hazards, fire blocks...) are gauges that are only
+ * evaluated when someone reads them, so they cost nothing while nobody is looking.
+ */
+public class MetricsRegistry {
+
+    public static final String REJECT_COOLDOWN = "COOLDOWN";
+    public static final String REJECT_NO_TARGET = "NO_TARGET";
+    public static final String REJECT_QUEUE_FULL = "QUEUE_FULL";
+    public static final String REJECT_STALE = "STALE";
+
+    private final LatencyHistogram interactLatency = new LatencyHistogram("interact");
+    private final LatencyHistogram trackerTickLatency = new LatencyHistogram("tracker tick");
+    private final LatencyHistogram effectLatency = new LatencyHistogram("effects");
+    private final LatencyHistogram activationLatency = new LatencyHistogram("activations");
+    private final LatencyHistogram activationWait = new LatencyHistogram("activation wait");
+
+    private final Map<String, LongAdder> activations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejects = new ConcurrentHashMap<>();
+    // Registered once on enable, only read afterwards
+    private final Map<String, IntSupplier> gauges = new LinkedHashMap<>();
+
+    /**
+     * @return Latency of the item listener's interact handler.
+     */
+    public LatencyHistogram getInteractLatency() {
+        return interactLatency;
+    }
+
+    /**
+     * @return Latency of one projectile engine tick.
+     */
+    public LatencyHistogram getTrackerTickLatency() {
+        return trackerTickLatency;
+    }
+
+    /**
+     * @return Latency of applying item effects (gas effect passes, grenade blasts).
+     */
+    public LatencyHistogram getEffectLatency() {
+        return effectLatency;
+    }
+
+    /**
+     * @return Latency of one activation executor tick.
+     */
+    public LatencyHistogram getActivationLatency() {
+        return activationLatency;
+    }
+
+    /**
+     * @return Time activations spend queued between the click and their execution.
+     */
+    public LatencyHistogram getActivationWait() {
+        return activationWait;
+    }
+
+    /**
+     * @return Every histogram, in display order.
+     */
+    public List<LatencyHistogram> getHistograms() {
+        return List.of(interactLatency, activationWait, activationLatency, trackerTickLatency, effectLatency);
+    }
+
+    /**
+     * Counts one successful use of an item.
+     */
+    public void recordActivation(String itemId) {
+        activations.computeIfAbsent(itemId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Counts one refused use.
+     * @param reason A short constant reason (e.g., {@link #REJECT_COOLDOWN}).
+     */
+    public void recordReject(String reason) {
+        rejects.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Registers a live value that is evaluated only when the metrics are read.
+     */
+    public void registerGauge(String name, IntSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * @return A sorted snapshot of the activation counters.
+     */
+    public Map<String, Long> getActivations() {
+        return snapshot(activations);
+    }
+
+    /**
+     * @return A sorted snapshot of the reject counters.
+     */
+    public Map<String, Long> getRejects() {
+        return snapshot(rejects);
+    }
+
+    /**
+     * @return The current value of every gauge, in registration order.
+     */
+    public Map<String, Integer> getGauges() {
+        Map<String, Integer> values = new LinkedHashMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsInt()));
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Clears every counter and histogram. Gauges are live and are not affected.
+     */
+    public void reset() {
+        activations.values().forEach(LongAdder::reset);
+        rejects.values().forEach(LongAdder::reset);
+        for (LatencyHistogram histogram : getHistograms()) {
+            histogram.reset();
+        }
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+}
@@ -0,0 +1,176 @@
+package me.remag501.itemsbgs.runnable;
+
+import me.remag501.itemsbgs.metrics.LatencyHistogram;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Runs queued item activations (targeting, consumption and the item's effect) under a per-tick
+ * time budget, so a burst of throws is spread over a few ticks instead of stretching one.
+ *
+ * Every player has a FIFO queue of their own activations, and the players with pending work take
+ * turns (round robin), so one player spamming throws can't delay everyone else's. Queues are
+ * bounded per player and in total; a submit over a bound is refused (backpressure) and the caller
+ * reports it. At least one activation runs every tick, so the queue always drains.
+ * Must only be used from the main thread.
+ */
+public class ActivationExecutor extends BukkitRunnable {
+
+    /**
+     * A validated use of an item, waiting to run.
+     */
+    public abstract static class Activation {
+        // When it was queued, for the wait histogram
+        private long enqueuedAt;
+
+        /**
+         * Runs the activation. Called at most once.
+         */
+        public abstract void execute();
+
+        /**
+         * Called instead of execute when the activation is dropped (the player left, or the plugin stops).
+         */
+        public abstract void discard();
+    }
+
+    private final Map<UUID, PlayerQueue> queues = new HashMap<>();
+    // Players with pending activations, in turn order
+    private final ArrayDeque<PlayerQueue> turns = new ArrayDeque<>();
+    private final long budgetNanos;
+    private final int maxPerPlayer;
+    private final int maxTotal;
+    private final LatencyHistogram tickLatency;
+    private final LatencyHistogram waitLatency;
+    private int pending = 0;
+
+    /**
+     * @param budgetNanos Time budget per tick.
+     * @param maxPerPlayer Most activations a single player can have queued.
+     * @param maxTotal Most activations queued across all players.
+     * @param tickLatency Histogram that records the duration of every tick with work.
+     * @param waitLatency Histogram that records how long each activation waited in the queue.
+     */
+    public ActivationExecutor(long budgetNanos, int maxPerPlayer, int maxTotal, LatencyHistogram tickLatency,
+                              LatencyHistogram waitLatency) {
+        this.budgetNanos = budgetNanos;
+        this.maxPerPlayer = Math.max(1, maxPerPlayer);
+        this.maxTotal = Math.max(1, maxTotal);
+        this.tickLatency = tickLatency;
+        this.waitLatency = waitLatency;
+    }
+
+    /**
+     * Queues an activation behind the player's earlier ones.
+     * @return false if the player's queue or the total queue is full; nothing was queued.
+     */
+    public boolean submit(UUID playerId, Activation activation) {
+        PlayerQueue queue = queues.get(playerId);
+        if (pending >= maxTotal || (queue != null && queue.size() >= maxPerPlayer)) {
+            return false;
+        }
+
+        if (queue == null) {
+            queue = new PlayerQueue(playerId);
+            queues.put(playerId, queue);
+        }
+        if (queue.isEmpty()) {
+            turns.add(queue);
+        }
+        activation.enqueuedAt = System.nanoTime();
+        queue.activations.add(activation);
+        pending++;
+        return true;
+    }
+
+    /**
+     * @return The number of queued activations.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Drops the queued activations of a player (e.g., when they leave).
+     */
+    public void removePlayer(UUID playerId) {
+        PlayerQueue queue = queues.remove(playerId);
+        if (queue == null) {
+            return;
+        }
+        turns.remove(queue);
+        pending -= queue.size();
+        queue.discardAll();
+    }
+
+    /**
+     * Drops every queued activation. Called when the plugin is disabled.
+     */
+    public void clear() {
+        for (PlayerQueue queue : queues.values()) {
+            pending -= queue.size();
+            queue.discardAll();
+        }
+        queues.clear();
+        turns.clear();
+    }
+
+    @Override
+    public void run() {
+        if (turns.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        long now = start;
+        do {
+            // One activation per turn, then the player goes to the back of the line
+            PlayerQueue queue = turns.poll();
+            Activation activation = queue.activations.poll();
+            pending--;
+            if (queue.isEmpty()) {
+                queues.remove(queue.playerId);
+            } else {
+                turns.add(queue);
+            }
+
+            waitLatency.record(now - activation.enqueuedAt);
+            // If it throws, the scheduler logs it and the rest runs next tick
+            activation.execute();
+            now = System.nanoTime();
+        } while (!turns.isEmpty() && now < deadline); // The rest waits for the next tick
+        tickLatency.record(now - start);
+    }
+
+    /**
+     * One player's activations, oldest first.
+     */
+    private static final class PlayerQueue {
+        private final UUID playerId;
+        private final ArrayDeque<Activation> activations = new ArrayDeque<>();
+
+        private PlayerQueue(UUID playerId) {
+            this.playerId = playerId;
+        }
+
+        private int size() {
+            return activations.size();
+        }
+
+        private boolean isEmpty() {
+            return activations.isEmpty();
+        }
+
+        private void discardAll() {
+            Activation activation;
+            while ((activation = activations.poll()) != null) {
+                activation.discard();
+            }
+        }
+    }
+}
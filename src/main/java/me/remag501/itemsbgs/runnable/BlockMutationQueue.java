@@ -0,0 +1,330 @@
+package me.remag501.itemsbgs.runnable;
+
+import me.remag501.itemsbgs.manager.LifecycleOwner;
+import me.remag501.itemsbgs.util.BlockKey;
+import me.remag501.itemsbgs.util.FireJournal;
+import me.remag501.itemsbgs.util.LongObjectMap;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies temporary fire placement and removal in batches.
+ * Mutations are grouped per chunk so each chunk is looked up once per batch, blocks are
+ * changed without neighbour physics, and the work is spread over several ticks under a
+ * per-tick time budget. Ten molotovs landing at once are therefore applied over a few ticks
+ * instead of in one spike. Removals dropped because their chunk isn't loaded are handed to the
+ * FireExpiryWheel, which queues them again once the chunk loads.
+ * Must only be used from the main thread.
+ */
+public class BlockMutationQueue extends BukkitRunnable implements LifecycleOwner {
+
+    private static final byte PLACE_FIRE = 0;
+    private static final byte REMOVE_FIRE = 1;
+
+    // How many mutations are applied between two clock reads
+    private static final int BUDGET_CHECK_INTERVAL = 16;
+
+    private final ArrayDeque<ChunkBatch> batches = new ArrayDeque<>();
+    private final Map<UUID, LongObjectMap<ChunkBatch>> queuedBatches = new HashMap<>();
+    private final long budgetNanos;
+    private FireExpiryWheel fireExpiry;
+    private int pending = 0;
+
+    /**
+     * @param budgetNanos Time budget per tick. At least one check interval of work is always done.
+     */
+    public BlockMutationQueue(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Sets the wheel that placed fire blocks are registered with.
+     */
+    public void setFireExpiry(FireExpiryWheel fireExpiry) {
+        this.fireExpiry = fireExpiry;
+    }
+
+    /**
+     * Queues a temporary fire block. When applied, fire is only placed if the block is air
+     * and the block below is solid; fire already owned by the expiry wheel is extended instead.
+     * @param durationTicks Ticks the fire burns once placed.
+     */
+    public void placeFire(World world, int x, int y, int z, int durationTicks) {
+        batchFor(world, x, z).add(BlockKey.pack(x, y, z), PLACE_FIRE, durationTicks);
+        pending++;
+    }
+
+    /**
+     * Queues fire over a square footprint centered on a block (e.g., a molotov's burning area).
+     * @param radius Cells on each side of the center, so the square is (2 * radius + 1) wide.
+     */
+    public void placeFireSquare(World world, int centerX, int y, int centerZ, int radius, int durationTicks) {
+        for (int x = -radius; x <= radius; x++) {
+            for (int z = -radius; z <= radius; z++) {
+                placeFire(world, centerX + x, y, centerZ + z, durationTicks);
+            }
+        }
+    }
+
+    /**
+     * Queues the removal of a fire block. Nothing happens if the block is no longer fire.
+     * @param journalSlot The block's FireJournal slot, handed back to the expiry wheel once the
+     *                    removal is applied, or {@link FireJournal#NO_SLOT}.
+     */
+    public void removeFire(World world, int x, int y, int z, int journalSlot) {
+        batchFor(world, x, z).add(BlockKey.pack(x, y, z), REMOVE_FIRE, journalSlot);
+        pending++;
+    }
+
+    /**
+     * @return The number of queued block changes.
+     */
+    public int size() {
+        return pending;
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + budgetNanos;
+        int sinceCheck = 0;
+
+        ChunkBatch batch;
+        while ((batch = batches.peek()) != null) {
+            if (!batch.world.isChunkLoaded(batch.chunkX, batch.chunkZ)) {
+                // Never load a chunk for a mutation (e.g., a footprint reaching past a loaded edge)
+                dropRemaining(batch);
+                dequeue(batch);
+                continue;
+            }
+            Chunk chunk = batch.world.getChunkAt(batch.chunkX, batch.chunkZ);
+
+            while (batch.next < batch.size) {
+                int index = batch.next++;
+                apply(batch.world, chunk, batch.positions[index], batch.operations[index], batch.arguments[index]);
+                pending--;
+
+                if (++sinceCheck >= BUDGET_CHECK_INTERVAL) {
+                    sinceCheck = 0;
+                    if (System.nanoTime() >= deadline) {
+                        // Out of budget, resume this batch next tick
+                        return;
+                    }
+                }
+            }
+
+            dequeue(batch);
+        }
+    }
+
+    /**
+     * Removes the batch at the head of the queue once it is done or dropped.
+     */
+    private void dequeue(ChunkBatch batch) {
+        batches.poll();
+        LongObjectMap<ChunkBatch> worldBatches = queuedBatches.get(batch.world.getUID());
+        worldBatches.remove(BlockKey.packChunk(batch.chunkX, batch.chunkZ));
+        if (worldBatches.isEmpty()) {
+            queuedBatches.remove(batch.world.getUID());
+        }
+    }
+
+    /**
+     * Applies every queued mutation right away, ignoring the budget. Called when the plugin is disabled.
+     * Batches of chunks that aren't loaded are dropped.
+     */
+    public void flush() {
+        ChunkBatch batch;
+        while ((batch = batches.poll()) != null) {
+            if (!batch.world.isChunkLoaded(batch.chunkX, batch.chunkZ)) {
+                dropRemaining(batch);
+                continue;
+            }
+            Chunk chunk = batch.world.getChunkAt(batch.chunkX, batch.chunkZ);
+            for (int index = batch.next; index < batch.size; index++) {
+                apply(batch.world, chunk, batch.positions[index], batch.operations[index], batch.arguments[index]);
+            }
+        }
+        queuedBatches.clear();
+        pending = 0;
+    }
+
+    @Override
+    public String getName() {
+        return "pending block changes";
+    }
+
+    @Override
+    public int getLiveCount() {
+        return pending;
+    }
+
+    /**
+     * Drops the queued changes of an unloading chunk. Queued removals are still applied while the
+     * chunk is loaded, queued placements are dropped so no fire is placed that nothing will extinguish.
+     */
+    @Override
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+        LongObjectMap<ChunkBatch> worldBatches = queuedBatches.get(world.getUID());
+        if (worldBatches == null) {
+            return;
+        }
+        ChunkBatch batch = worldBatches.remove(BlockKey.packChunk(chunkX, chunkZ));
+        if (batch == null) {
+            return;
+        }
+        if (worldBatches.isEmpty()) {
+            queuedBatches.remove(world.getUID());
+        }
+        batches.remove(batch);
+        applyRemovals(batch);
+    }
+
+    @Override
+    public void releaseWorld(World world) {
+        if (queuedBatches.remove(world.getUID()) == null) {
+            return;
+        }
+        batches.removeIf(batch -> {
+            if (batch.world != world) {
+                return false;
+            }
+            applyRemovals(batch);
+            return true;
+        });
+    }
+
+    /**
+     * Flushes the queue, the fire it places is extinguished by the FireExpiryWheel (released after this queue).
+     */
+    @Override
+    public void releaseAll() {
+        flush();
+    }
+
+    /**
+     * Applies the outstanding removals of a batch that is being dropped (if its chunk is still loaded).
+     */
+    private void applyRemovals(ChunkBatch batch) {
+        if (!batch.world.isChunkLoaded(batch.chunkX, batch.chunkZ)) {
+            dropRemaining(batch);
+            return;
+        }
+        Chunk chunk = batch.world.getChunkAt(batch.chunkX, batch.chunkZ);
+        for (int index = batch.next; index < batch.size; index++) {
+            if (batch.operations[index] == REMOVE_FIRE) {
+                apply(batch.world, chunk, batch.positions[index], REMOVE_FIRE, batch.arguments[index]);
+            }
+        }
+        pending -= batch.size - batch.next;
+        batch.next = batch.size;
+    }
+
+    /**
+     * Drops the outstanding mutations of a batch whose chunk isn't loaded. Placements are lost,
+     * removals go back to the FireExpiryWheel until the chunk loads.
+     */
+    private void dropRemaining(ChunkBatch batch) {
+        for (int index = batch.next; index < batch.size; index++) {
+            if (batch.operations[index] == REMOVE_FIRE) {
+                fireExpiry.removalDropped(batch.world, batch.positions[index], batch.arguments[index]);
+            }
+        }
+        pending -= batch.size - batch.next;
+        batch.next = batch.size;
+    }
+
+    /**
+     * @param argument Ticks the fire burns for a placement, the journal slot for a removal.
+     */
+    private void apply(World world, Chunk chunk, long position, byte operation, int argument) {
+        int x = BlockKey.unpackX(position);
+        int y = BlockKey.unpackY(position);
+        int z = BlockKey.unpackZ(position);
+
+        if (y < world.getMinHeight() || y >= world.getMaxHeight()) {
+            if (operation == REMOVE_FIRE) {
+                fireExpiry.removalApplied(world, argument);
+            }
+            return;
+        }
+
+        Block block = chunk.getBlock(x & 15, y, z & 15);
+        Material type = block.getType();
+
+        if (operation == REMOVE_FIRE) {
+            if (type == Material.FIRE) {
+                block.setType(Material.AIR, false);
+            }
+            fireExpiry.removalApplied(world, argument);
+            return;
+        }
+        int durationTicks = argument;
+
+        if (type == Material.AIR) {
+            // Check if the block below is solid
+            if (y - 1 < world.getMinHeight() || !chunk.getBlock(x & 15, y - 1, z & 15).getType().isSolid()) {
+                return;
+            }
+            block.setType(Material.FIRE, false);
+            fireExpiry.schedule(world, x, y, z, durationTicks);
+        } else if (type == Material.FIRE) {
+            // Overlapping molotov: keep our own fire burning longer (natural fire is left alone)
+            fireExpiry.extend(world, x, y, z, durationTicks);
+        }
+    }
+
+    private ChunkBatch batchFor(World world, int x, int z) {
+        LongObjectMap<ChunkBatch> worldBatches = queuedBatches.computeIfAbsent(world.getUID(), uid -> new LongObjectMap<>());
+        long chunkKey = BlockKey.chunkOf(x, z);
+
+        ChunkBatch batch = worldBatches.get(chunkKey);
+        if (batch == null) {
+            batch = new ChunkBatch(world, x >> 4, z >> 4);
+            worldBatches.put(chunkKey, batch);
+            batches.add(batch);
+        }
+        return batch;
+    }
+
+    /**
+     * Queued mutations for one chunk, stored as parallel primitive arrays.
+     */
+    private static final class ChunkBatch {
+        private final World world;
+        private final int chunkX;
+        private final int chunkZ;
+        private long[] positions = new long[32];
+        private byte[] operations = new byte[32];
+        // Fire duration for placements, journal slot for removals
+        private int[] arguments = new int[32];
+        private int size = 0;
+        private int next = 0;
+
+        private ChunkBatch(World world, int chunkX, int chunkZ) {
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        private void add(long position, byte operation, int argument) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size << 1);
+                operations = Arrays.copyOf(operations, size << 1);
+                arguments = Arrays.copyOf(arguments, size << 1);
+            }
+            positions[size] = position;
+            operations[size] = operation;
+            arguments[size] = argument;
+            size++;
+        }
+    }
+}
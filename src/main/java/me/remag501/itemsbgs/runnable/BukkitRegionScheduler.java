@@ -0,0 +1,267 @@
+package me.remag501.itemsbgs.runnable;
+
+import me.remag501.itemsbgs.manager.LifecycleOwner;
+import me.remag501.itemsbgs.util.LongObjectMap;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RegionScheduler on the Bukkit main thread.
+ * Every region with pending work has its own queue (shard), and a single repeating task (the
+ * heartbeat) runs the due tasks of each shard in turn. Shards without work are dropped, so the
+ * heartbeat only visits regions where something is scheduled. A task that throws is logged and
+ * doesn't keep the rest of its shard, or any other shard, from running.
+ * Must only be used from the main thread.
+ */
+public class BukkitRegionScheduler extends BukkitRunnable implements RegionScheduler, LifecycleOwner {
+
+    private final Map<UUID, LongObjectMap<Shard>> regions = new HashMap<>();
+    private final Shard global = new Shard(null, 0);
+    // Shards with queued tasks, visited by the heartbeat
+    private final List<Shard> active = new ArrayList<>();
+    private final Logger logger;
+    private long currentTick = 0;
+    private boolean running = false;
+    private long sequence = 0;
+    private int pending = 0;
+    private int globalPending = 0;
+
+    /**
+     * @param logger Where failing tasks are reported.
+     */
+    public BukkitRegionScheduler(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public Task runAt(World world, int chunkX, int chunkZ, long delayTicks, Runnable task) {
+        return schedule(shardFor(world, RegionScheduler.regionKey(chunkX, chunkZ)), delayTicks, 0, task);
+    }
+
+    @Override
+    public Task runAtFixedRate(World world, int chunkX, int chunkZ, long delayTicks, long periodTicks, Runnable task) {
+        return schedule(shardFor(world, RegionScheduler.regionKey(chunkX, chunkZ)), delayTicks, Math.max(1, periodTicks), task);
+    }
+
+    @Override
+    public Task runGlobal(long delayTicks, long periodTicks, Runnable task) {
+        if (!global.active) {
+            global.active = true;
+            active.add(global);
+        }
+        return schedule(global, delayTicks, Math.max(0, periodTicks), task);
+    }
+
+    @Override
+    public void cancelWorld(World world) {
+        LongObjectMap<Shard> shards = regions.remove(world.getUID());
+        if (shards == null) {
+            return;
+        }
+        shards.forEach((key, shard) -> cancelShard(shard));
+    }
+
+    @Override
+    public void cancelAll() {
+        for (Shard shard : active) {
+            cancelShard(shard);
+        }
+        regions.clear();
+    }
+
+    @Override
+    public int getPending() {
+        return pending;
+    }
+
+    @Override
+    public String getName() {
+        return "scheduled tasks";
+    }
+
+    /**
+     * Only regional tasks count as live, the global shard always holds the repeating housekeeping.
+     */
+    @Override
+    public int getLiveCount() {
+        return pending - globalPending;
+    }
+
+    /**
+     * Nothing to release, a region outlives the unload of one of its chunks.
+     * Tasks check for themselves whether the chunk they touch is loaded.
+     */
+    @Override
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+    }
+
+    @Override
+    public void releaseWorld(World world) {
+        cancelWorld(world);
+    }
+
+    @Override
+    public void releaseAll() {
+        cancelAll();
+    }
+
+    @Override
+    public void run() {
+        currentTick++;
+        running = true;
+        try {
+            // Tasks scheduled while running go to the next tick, so the list can only grow with idle shards
+            int index = 0;
+            while (index < active.size()) {
+                Shard shard = active.get(index);
+                runDue(shard);
+                if (shard.queue.isEmpty()) {
+                    removeShard(index, shard);
+                } else {
+                    index++;
+                }
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    private void runDue(Shard shard) {
+        ScheduledTask task;
+        while ((task = shard.queue.peek()) != null && task.dueTick <= currentTick) {
+            shard.queue.poll();
+            if (task.cancelled) {
+                continue;
+            }
+            if (task.periodTicks > 0) {
+                // Requeue before running, so the task can cancel itself
+                task.dueTick = currentTick + task.periodTicks;
+                task.sequence = sequence++;
+                shard.queue.add(task);
+            } else {
+                task.finish();
+            }
+            try {
+                task.runnable.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "A scheduled task failed", e);
+            }
+        }
+    }
+
+    private Task schedule(Shard shard, long delayTicks, long periodTicks, Runnable runnable) {
+        long minDelay = running ? 1 : 0;
+        ScheduledTask task = new ScheduledTask(shard == global, runnable, currentTick + Math.max(minDelay, delayTicks),
+                periodTicks, sequence++);
+        shard.queue.add(task);
+        pending++;
+        if (task.global) {
+            globalPending++;
+        }
+        return task;
+    }
+
+    private Shard shardFor(World world, long regionKey) {
+        LongObjectMap<Shard> shards = regions.computeIfAbsent(world.getUID(), uid -> new LongObjectMap<>());
+        Shard shard = shards.get(regionKey);
+        if (shard == null) {
+            shard = new Shard(world.getUID(), regionKey);
+            shards.put(regionKey, shard);
+        }
+        if (!shard.active) {
+            shard.active = true;
+            active.add(shard);
+        }
+        return shard;
+    }
+
+    private void removeShard(int index, Shard shard) {
+        // Swap-remove, the visiting order of shards doesn't matter
+        int last = active.size() - 1;
+        active.set(index, active.get(last));
+        active.remove(last);
+        shard.active = false;
+        if (shard.worldId == null) {
+            return; // The global shard is kept
+        }
+
+        LongObjectMap<Shard> shards = regions.get(shard.worldId);
+        if (shards != null && shards.get(shard.regionKey) == shard) {
+            shards.remove(shard.regionKey);
+            if (shards.isEmpty()) {
+                regions.remove(shard.worldId);
+            }
+        }
+    }
+
+    private void cancelShard(Shard shard) {
+        for (ScheduledTask task : shard.queue) {
+            task.cancel();
+        }
+        // Left in the active list, the heartbeat drops it once it finds the queue empty
+        shard.queue.clear();
+    }
+
+    /**
+     * The queue of one region (or of the global shard).
+     */
+    private static final class Shard {
+        private final UUID worldId;
+        private final long regionKey;
+        private final PriorityQueue<ScheduledTask> queue = new PriorityQueue<>((a, b) -> a.dueTick != b.dueTick
+                ? Long.compare(a.dueTick, b.dueTick)
+                : Long.compare(a.sequence, b.sequence));
+        private boolean active = false;
+
+        private Shard(UUID worldId, long regionKey) {
+            this.worldId = worldId;
+            this.regionKey = regionKey;
+        }
+    }
+
+    private final class ScheduledTask implements Task {
+        private final boolean global;
+        private final Runnable runnable;
+        private final long periodTicks;
+        private long dueTick;
+        private long sequence;
+        private boolean cancelled = false;
+
+        private ScheduledTask(boolean global, Runnable runnable, long dueTick, long periodTicks, long sequence) {
+            this.global = global;
+            this.runnable = runnable;
+            this.dueTick = dueTick;
+            this.periodTicks = periodTicks;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                finish();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void finish() {
+            cancelled = true;
+            pending--;
+            if (global) {
+                globalPending--;
+            }
+        }
+    }
+}
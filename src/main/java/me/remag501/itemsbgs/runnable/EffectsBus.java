@@ -0,0 +1,308 @@
+package me.remag501.itemsbgs.runnable;
+
+import me.remag501.itemsbgs.manager.LifecycleOwner;
+import me.remag501.itemsbgs.util.BlockKey;
+import me.remag501.itemsbgs.util.LongObjectMap;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects the sounds and particles the items emit during a tick and sends them once per tick.
+ * Identical emissions (same sound and pitch, or same particle and spread) within the same small
+ * cell are merged into one, so a dozen grenades going off together cost every nearby player one
+ * explosion sound instead of twelve. Each merged emission is only sent to the players whose view
+ * distance covers it, and never further than the client would hear or show it anyway.
+ * Must only be used from the main thread.
+ */
+public class EffectsBus extends BukkitRunnable implements LifecycleOwner {
+
+    // Emissions within the same 4x4x4 cell are considered to be at the same place
+    private static final int CELL_SHIFT = 2;
+    // Vanilla hearing distance per unit of volume, and the distance at which clients drop particles
+    private static final double SOUND_RANGE_PER_VOLUME = 16.0;
+    private static final double PARTICLE_RANGE = 32.0;
+
+    private final Map<UUID, WorldBatch> batches = new HashMap<>();
+    // Emission objects are reused from tick to tick
+    private final List<Emission> pool = new ArrayList<>();
+    private int used = 0;
+    private long requested = 0;
+    private long sent = 0;
+
+    /**
+     * Queues a sound, heard by every player in range (like World#playSound).
+     */
+    public void playSound(Location location, Sound sound, float volume, float pitch) {
+        World world = location.getWorld();
+        double x = location.getX();
+        double y = location.getY();
+        double z = location.getZ();
+        requested++;
+
+        WorldBatch batch = batchFor(world);
+        long cell = cellKey(x, y, z);
+        Emission head = batch.cells.get(cell);
+        for (Emission emission = head; emission != null; emission = emission.next) {
+            if (emission.sound == sound && emission.pitch == pitch) {
+                emission.volume = Math.max(emission.volume, volume); // The loudest wins
+                return;
+            }
+        }
+
+        Emission emission = obtain(head, x, y, z);
+        emission.sound = sound;
+        emission.volume = volume;
+        emission.pitch = pitch;
+        batch.add(cell, emission);
+    }
+
+    /**
+     * Queues a particle burst, seen by every player in range (like World#spawnParticle).
+     */
+    public void spawnParticle(World world, Particle particle, double x, double y, double z, int count,
+                              double offsetX, double offsetY, double offsetZ, double extra) {
+        requested++;
+
+        WorldBatch batch = batchFor(world);
+        long cell = cellKey(x, y, z);
+        Emission head = batch.cells.get(cell);
+        for (Emission emission = head; emission != null; emission = emission.next) {
+            if (emission.particle == particle && emission.offsetX == offsetX && emission.offsetY == offsetY
+                    && emission.offsetZ == offsetZ && emission.extra == extra) {
+                emission.count = Math.max(emission.count, count);
+                return;
+            }
+        }
+
+        Emission emission = obtain(head, x, y, z);
+        emission.particle = particle;
+        emission.count = count;
+        emission.offsetX = offsetX;
+        emission.offsetY = offsetY;
+        emission.offsetZ = offsetZ;
+        emission.extra = extra;
+        batch.add(cell, emission);
+    }
+
+    /**
+     * Queues a particle burst without spread.
+     */
+    public void spawnParticle(Location location, Particle particle, int count) {
+        spawnParticle(location.getWorld(), particle, location.getX(), location.getY(), location.getZ(), count, 0, 0, 0, 0);
+    }
+
+    /**
+     * @return The number of emissions requested since the start.
+     */
+    public long getRequested() {
+        return requested;
+    }
+
+    /**
+     * @return The number of emissions actually sent to a player since the start.
+     */
+    public long getSent() {
+        return sent;
+    }
+
+    @Override
+    public String getName() {
+        return "queued effects";
+    }
+
+    @Override
+    public int getLiveCount() {
+        return used;
+    }
+
+    /**
+     * Nothing to release, effects are gone by the end of the tick.
+     */
+    @Override
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+    }
+
+    /**
+     * Drops the effects queued in an unloading world, so the bus doesn't keep it alive.
+     */
+    @Override
+    public void releaseWorld(World world) {
+        WorldBatch batch = batches.remove(world.getUID());
+        if (batch != null) {
+            batch.clear();
+        }
+    }
+
+    @Override
+    public void releaseAll() {
+        clear();
+    }
+
+    @Override
+    public void run() {
+        if (used == 0) {
+            return;
+        }
+
+        for (WorldBatch batch : batches.values()) {
+            if (!batch.emissions.isEmpty()) {
+                flush(batch);
+            }
+        }
+        for (int i = 0; i < used; i++) {
+            pool.get(i).reset();
+        }
+        used = 0;
+    }
+
+    /**
+     * Drops everything queued. Called when the plugin is disabled.
+     */
+    public void clear() {
+        for (WorldBatch batch : batches.values()) {
+            batch.clear();
+        }
+        batches.clear();
+        for (int i = 0; i < used; i++) {
+            pool.get(i).reset();
+        }
+        used = 0;
+    }
+
+    private void flush(WorldBatch batch) {
+        World world = batch.world;
+        List<Player> players = world.getPlayers();
+        int worldViewBlocks = world.getViewDistance() << 4;
+
+        // Positions and view ranges are read once per player, not once per emission
+        int playerCount = players.size();
+        double[] px = new double[playerCount];
+        double[] py = new double[playerCount];
+        double[] pz = new double[playerCount];
+        double[] viewRange = new double[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            Player player = players.get(i);
+            Location location = player.getLocation();
+            px[i] = location.getX();
+            py[i] = location.getY();
+            pz[i] = location.getZ();
+            int clientViewBlocks = player.getClientViewDistance() << 4;
+            viewRange[i] = clientViewBlocks > 0 ? Math.min(worldViewBlocks, clientViewBlocks) : worldViewBlocks;
+        }
+
+        for (Emission emission : batch.emissions) {
+            double naturalRange = emission.sound != null
+                    ? SOUND_RANGE_PER_VOLUME * Math.max(1.0f, emission.volume)
+                    : PARTICLE_RANGE;
+            Location location = emission.sound != null ? new Location(world, emission.x, emission.y, emission.z) : null;
+
+            for (int i = 0; i < playerCount; i++) {
+                double range = Math.min(naturalRange, viewRange[i]);
+                double dx = px[i] - emission.x;
+                double dy = py[i] - emission.y;
+                double dz = pz[i] - emission.z;
+                if (dx * dx + dy * dy + dz * dz > range * range) {
+                    continue;
+                }
+
+                Player player = players.get(i);
+                if (location != null) {
+                    player.playSound(location, emission.sound, emission.volume, emission.pitch);
+                } else {
+                    player.spawnParticle(emission.particle, emission.x, emission.y, emission.z, emission.count,
+                            emission.offsetX, emission.offsetY, emission.offsetZ, emission.extra);
+                }
+                sent++;
+            }
+        }
+        batch.clear();
+    }
+
+    private WorldBatch batchFor(World world) {
+        WorldBatch batch = batches.get(world.getUID());
+        if (batch == null || batch.world != world) {
+            batch = new WorldBatch(world);
+            batches.put(world.getUID(), batch);
+        }
+        return batch;
+    }
+
+    private Emission obtain(Emission next, double x, double y, double z) {
+        Emission emission;
+        if (used < pool.size()) {
+            emission = pool.get(used);
+        } else {
+            emission = new Emission();
+            pool.add(emission);
+        }
+        used++;
+        emission.x = x;
+        emission.y = y;
+        emission.z = z;
+        emission.next = next;
+        return emission;
+    }
+
+    private static long cellKey(double x, double y, double z) {
+        return BlockKey.pack((int) Math.floor(x) >> CELL_SHIFT, (int) Math.floor(y) >> CELL_SHIFT, (int) Math.floor(z) >> CELL_SHIFT);
+    }
+
+    /**
+     * The emissions queued in one world this tick, by cell.
+     */
+    private static final class WorldBatch {
+        private final World world;
+        // Head of each cell's chain of distinct emissions
+        private final LongObjectMap<Emission> cells = new LongObjectMap<>();
+        private final List<Emission> emissions = new ArrayList<>();
+
+        private WorldBatch(World world) {
+            this.world = world;
+        }
+
+        private void add(long cell, Emission emission) {
+            cells.put(cell, emission);
+            emissions.add(emission);
+        }
+
+        private void clear() {
+            cells.clear();
+            emissions.clear();
+        }
+    }
+
+    /**
+     * A queued sound (sound set) or particle burst (particle set).
+     */
+    private static final class Emission {
+        private double x;
+        private double y;
+        private double z;
+        private Sound sound;
+        private float volume;
+        private float pitch;
+        private Particle particle;
+        private int count;
+        private double offsetX;
+        private double offsetY;
+        private double offsetZ;
+        private double extra;
+        private Emission next;
+
+        private void reset() {
+            sound = null;
+            particle = null;
+            next = null;
+        }
+    }
+}
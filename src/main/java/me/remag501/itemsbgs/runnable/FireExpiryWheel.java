@@ -0,0 +1,532 @@
+package me.remag501.itemsbgs.runnable;
+
+import me.remag501.itemsbgs.manager.LifecycleOwner;
+import me.remag501.itemsbgs.util.BlockKey;
+import me.remag501.itemsbgs.util.FireJournal;
+import me.remag501.itemsbgs.util.LongObjectMap;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hashed timing wheels that extinguish temporary fire blocks.
+ * Replaces the one-runnable-per-fire-block approach: every fire block is a single entry keyed
+ * by its packed position, so overlapping molotovs extend the existing expiry instead of
+ * scheduling another task. Entries are reference counted by the number of placements that
+ * currently own the block. Each region with fire has its own wheel, ticked by one repeating task
+ * in that region's shard of the RegionScheduler, and dropped once it is empty. The drains of all
+ * regions share a budget of {@code blocksPerTick} blocks per tick, refilled by this runnable;
+ * anything over budget carries over to the next tick. The actual block changes go through
+ * the BlockMutationQueue. Every tracked block is also recorded in the FireJournal (if any),
+ * so fire left burning by a crash is rolled back on the next start. A block stays in the journal
+ * until its removal is applied and its world saved, not just until the removal is queued.
+ * Removals dropped because their chunk unloaded are kept (with their journal slot) and queued
+ * again when the chunk loads.
+ * Must only be used from the main thread.
+ */
+public class FireExpiryWheel extends BukkitRunnable implements LifecycleOwner {
+
+    // Power of two so the bucket index is a mask. Longer expiries simply wrap around.
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final int STATE_SCHEDULED = 0;
+    private static final int STATE_DUE = 1;
+    private static final int STATE_REMOVED = 2;
+
+    private final Map<UUID, LongObjectMap<FireEntry>> entriesByWorld = new HashMap<>();
+    private final Map<UUID, LongObjectMap<RegionWheel>> regionsByWorld = new HashMap<>();
+    // Removals whose chunk unloaded before they were applied, per world and chunk
+    private final Map<UUID, LongObjectMap<DeferredRemovals>> deferredRemovals = new HashMap<>();
+    private final int blocksPerTick;
+    private final BlockMutationQueue mutations;
+    private final RegionScheduler scheduler;
+    private FireJournal journal;
+
+    // Blocks the region wheels may still extinguish this tick
+    private int budget;
+    private int size = 0;
+    private int deferredCount = 0;
+    private int unjournaledCount = 0;
+
+    /**
+     * @param blocksPerTick Maximum number of fire blocks extinguished per tick.
+     * @param mutations The queue that applies the block changes.
+     * @param scheduler Ticks the wheel of each region with fire.
+     */
+    public FireExpiryWheel(int blocksPerTick, BlockMutationQueue mutations, RegionScheduler scheduler) {
+        this.blocksPerTick = Math.max(1, blocksPerTick);
+        this.budget = this.blocksPerTick;
+        this.mutations = mutations;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Sets the journal tracked blocks are recorded in, or null for none.
+     */
+    public void setJournal(FireJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Takes one ownership of the fire block at the given position, creating the entry if needed.
+     * The block expires at the latest expiry requested by any owner.
+     * @param durationTicks Ticks from now until the fire should be extinguished.
+     */
+    public void schedule(World world, int x, int y, int z, int durationTicks) {
+        long key = BlockKey.pack(x, y, z);
+        LongObjectMap<FireEntry> entries = entriesByWorld.computeIfAbsent(world.getUID(), uid -> new LongObjectMap<>());
+
+        FireEntry entry = entries.get(key);
+        RegionWheel region = entry != null ? entry.region : regionFor(world, x >> 4, z >> 4);
+        long expiryTick = region.tick + Math.max(1, durationTicks);
+
+        if (entry == null) {
+            entry = new FireEntry(world, key, region);
+            entries.put(key, entry);
+            region.size++;
+            size++;
+        } else if (expiryTick <= entry.expiryTick && entry.state == STATE_SCHEDULED) {
+            // Already burning at least this long
+            entry.refCount++;
+            return;
+        } else if (entry.state == STATE_SCHEDULED) {
+            unlink(entry);
+        }
+
+        entry.refCount++;
+        entry.expiryTick = Math.max(expiryTick, entry.expiryTick);
+        link(entry);
+
+        if (journal == null) {
+            return;
+        }
+        // The journal outlives the region's tick counter, so it stores game time
+        long expiryGameTime = world.getGameTime() + (entry.expiryTick - region.tick);
+        if (entry.journalSlot == FireJournal.NO_SLOT) {
+            // Retried on every extension while the journal is full
+            entry.journalSlot = journal.record(world.getUID(), key, expiryGameTime);
+            boolean unjournaled = entry.journalSlot == FireJournal.NO_SLOT;
+            if (unjournaled != entry.unjournaled) {
+                entry.unjournaled = unjournaled;
+                unjournaledCount += unjournaled ? 1 : -1;
+            }
+        } else {
+            journal.updateExpiry(entry.journalSlot, expiryGameTime);
+        }
+    }
+
+    /**
+     * Extends a fire block that is already tracked by this wheel.
+     * @return false if the block is not tracked (e.g., natural fire), in which case nothing changes.
+     */
+    public boolean extend(World world, int x, int y, int z, int durationTicks) {
+        if (!isTracked(world, x, y, z)) {
+            return false;
+        }
+        schedule(world, x, y, z, durationTicks);
+        return true;
+    }
+
+    /**
+     * @return true if the block at the given position is a fire block owned by this wheel.
+     */
+    public boolean isTracked(World world, int x, int y, int z) {
+        LongObjectMap<FireEntry> entries = entriesByWorld.get(world.getUID());
+        return entries != null && entries.containsKey(BlockKey.pack(x, y, z));
+    }
+
+    /**
+     * Drops one ownership of a fire block. When the last owner releases it the fire is
+     * extinguished immediately instead of waiting for its expiry.
+     * @return true if the block was tracked.
+     */
+    public boolean release(World world, int x, int y, int z) {
+        LongObjectMap<FireEntry> entries = entriesByWorld.get(world.getUID());
+        if (entries == null) {
+            return false;
+        }
+
+        FireEntry entry = entries.get(BlockKey.pack(x, y, z));
+        if (entry == null) {
+            return false;
+        }
+
+        if (--entry.refCount <= 0) {
+            if (entry.state == STATE_SCHEDULED) {
+                unlink(entry);
+            }
+            removeEntry(entry);
+            extinguish(entry);
+        }
+        return true;
+    }
+
+    /**
+     * Called by the BlockMutationQueue once a queued removal was applied. The journal slot is
+     * freed when the world is next saved, until then the fire may still be on disk.
+     */
+    public void removalApplied(World world, int journalSlot) {
+        if (journal != null) {
+            journal.clearOnSave(world.getUID(), journalSlot);
+        }
+    }
+
+    /**
+     * Called by the BlockMutationQueue for a queued removal it dropped because the chunk isn't loaded.
+     * The removal is queued again when the chunk loads, the journal slot stays recorded until then.
+     * @param position The block, packed with {@link BlockKey#pack(int, int, int)}.
+     */
+    public void removalDropped(World world, long position, int journalSlot) {
+        long chunkKey = BlockKey.chunkOf(BlockKey.unpackX(position), BlockKey.unpackZ(position));
+        LongObjectMap<DeferredRemovals> chunks = deferredRemovals.computeIfAbsent(world.getUID(), uid -> new LongObjectMap<>());
+        DeferredRemovals removals = chunks.get(chunkKey);
+        if (removals == null) {
+            removals = new DeferredRemovals();
+            chunks.put(chunkKey, removals);
+        }
+        removals.add(position, journalSlot);
+        deferredCount++;
+    }
+
+    /**
+     * Queues the removals deferred in a chunk that just loaded.
+     */
+    public void chunkLoaded(World world, int chunkX, int chunkZ) {
+        LongObjectMap<DeferredRemovals> chunks = deferredRemovals.get(world.getUID());
+        if (chunks == null) {
+            return;
+        }
+        DeferredRemovals removals = chunks.remove(BlockKey.packChunk(chunkX, chunkZ));
+        if (removals == null) {
+            return;
+        }
+        if (chunks.isEmpty()) {
+            deferredRemovals.remove(world.getUID());
+        }
+        for (int i = 0; i < removals.size; i++) {
+            long position = removals.positions[i];
+            mutations.removeFire(world, BlockKey.unpackX(position), BlockKey.unpackY(position), BlockKey.unpackZ(position),
+                    removals.journalSlots[i]);
+        }
+        deferredCount -= removals.size;
+    }
+
+    /**
+     * @return The number of removals waiting for their chunk to load.
+     */
+    public int getDeferredRemovals() {
+        return deferredCount;
+    }
+
+    /**
+     * @return The number of tracked fire blocks the journal had no room for.
+     */
+    public int getUnjournaled() {
+        return unjournaledCount;
+    }
+
+    /**
+     * @return The number of fire blocks currently waiting to be extinguished.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Refills the extinguish budget shared by the region wheels.
+     */
+    @Override
+    public void run() {
+        budget = blocksPerTick;
+    }
+
+    /**
+     * Extinguishes every tracked fire block in a loaded chunk immediately. Called when the plugin is disabled.
+     * Blocks in unloaded chunks, and deferred removals, stay in the journal and are rolled back on the next start.
+     */
+    public void expireAll() {
+        for (LongObjectMap<FireEntry> entries : entriesByWorld.values()) {
+            entries.forEach((key, fireEntry) -> {
+                fireEntry.state = STATE_REMOVED;
+                if (isChunkLoaded(fireEntry)) {
+                    extinguishNow(fireEntry);
+                    forgetOnSave(fireEntry);
+                }
+            });
+            entries.clear();
+        }
+        entriesByWorld.clear();
+        for (LongObjectMap<RegionWheel> regions : regionsByWorld.values()) {
+            regions.forEach((key, region) -> region.task.cancel());
+        }
+        regionsByWorld.clear();
+        deferredRemovals.clear();
+        size = 0;
+        deferredCount = 0;
+        unjournaledCount = 0;
+    }
+
+    @Override
+    public String getName() {
+        return "fire blocks";
+    }
+
+    @Override
+    public int getLiveCount() {
+        return size;
+    }
+
+    /**
+     * Extinguishes the tracked fire in an unloading chunk right away, so it isn't saved burning forever.
+     */
+    @Override
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+        LongObjectMap<FireEntry> entries = entriesByWorld.get(world.getUID());
+        if (entries == null) {
+            return;
+        }
+
+        List<FireEntry> inChunk = new ArrayList<>();
+        entries.forEach((key, entry) -> {
+            if (BlockKey.unpackX(key) >> 4 == chunkX && BlockKey.unpackZ(key) >> 4 == chunkZ) {
+                inChunk.add(entry);
+            }
+        });
+        for (FireEntry entry : inChunk) {
+            releaseNow(entry);
+        }
+    }
+
+    @Override
+    public void releaseWorld(World world) {
+        LongObjectMap<FireEntry> entries = entriesByWorld.get(world.getUID());
+        if (entries != null) {
+            List<FireEntry> inWorld = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> inWorld.add(entry));
+            for (FireEntry entry : inWorld) {
+                releaseNow(entry);
+            }
+        }
+    }
+
+    @Override
+    public void releaseAll() {
+        expireAll();
+    }
+
+    /**
+     * Stops tracking an entry and extinguishes its block now, or once its chunk loads again.
+     */
+    private void releaseNow(FireEntry entry) {
+        if (entry.state == STATE_SCHEDULED) {
+            unlink(entry);
+        }
+        removeEntry(entry);
+        if (isChunkLoaded(entry)) {
+            extinguishNow(entry);
+            forgetOnSave(entry);
+        } else {
+            removalDropped(entry.world, entry.key, entry.journalSlot);
+            entry.journalSlot = FireJournal.NO_SLOT;
+        }
+    }
+
+    private boolean isChunkLoaded(FireEntry entry) {
+        return entry.world.isChunkLoaded(BlockKey.unpackX(entry.key) >> 4, BlockKey.unpackZ(entry.key) >> 4);
+    }
+
+    /**
+     * Queues the removal. The journal slot goes with it and is cleared once the removal is applied.
+     */
+    private void extinguish(FireEntry entry) {
+        int journalSlot = entry.journalSlot;
+        entry.journalSlot = FireJournal.NO_SLOT;
+        mutations.removeFire(entry.world, BlockKey.unpackX(entry.key), BlockKey.unpackY(entry.key), BlockKey.unpackZ(entry.key),
+                journalSlot);
+    }
+
+    private void forgetOnSave(FireEntry entry) {
+        if (journal != null) {
+            journal.clearOnSave(entry.world.getUID(), entry.journalSlot);
+        }
+        entry.journalSlot = FireJournal.NO_SLOT;
+    }
+
+    private void extinguishNow(FireEntry entry) {
+        Block fireBlock = entry.world.getBlockAt(BlockKey.unpackX(entry.key), BlockKey.unpackY(entry.key), BlockKey.unpackZ(entry.key));
+        if (fireBlock.getType() == Material.FIRE) {
+            fireBlock.setType(Material.AIR);
+        }
+    }
+
+    private void removeEntry(FireEntry entry) {
+        entry.state = STATE_REMOVED;
+        if (entry.unjournaled) {
+            entry.unjournaled = false;
+            unjournaledCount--;
+        }
+        LongObjectMap<FireEntry> entries = entriesByWorld.get(entry.world.getUID());
+        if (entries != null && entries.remove(entry.key) != null) {
+            size--;
+            if (entries.isEmpty()) {
+                entriesByWorld.remove(entry.world.getUID());
+            }
+            if (--entry.region.size == 0) {
+                removeRegion(entry.region);
+            }
+        }
+    }
+
+    private RegionWheel regionFor(World world, int chunkX, int chunkZ) {
+        long regionKey = RegionScheduler.regionKey(chunkX, chunkZ);
+        LongObjectMap<RegionWheel> regions = regionsByWorld.computeIfAbsent(world.getUID(), uid -> new LongObjectMap<>());
+        RegionWheel region = regions.get(regionKey);
+        if (region == null) {
+            region = new RegionWheel(world.getUID(), regionKey);
+            RegionWheel ticked = region;
+            region.task = scheduler.runAtFixedRate(world, chunkX, chunkZ, 1, 1, () -> tick(ticked));
+            regions.put(regionKey, region);
+        }
+        return region;
+    }
+
+    /**
+     * Drops a region once its last entry is gone. Entries still in its due queue were removed and are never drained.
+     */
+    private void removeRegion(RegionWheel region) {
+        region.task.cancel();
+        LongObjectMap<RegionWheel> regions = regionsByWorld.get(region.worldId);
+        if (regions != null && regions.get(region.regionKey) == region) {
+            regions.remove(region.regionKey);
+            if (regions.isEmpty()) {
+                regionsByWorld.remove(region.worldId);
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel of one region by a tick and extinguishes its due blocks, within the shared budget.
+     */
+    private void tick(RegionWheel region) {
+        region.tick++;
+
+        // 1. Move every entry in this tick's bucket that is due into the drain queue
+        FireEntry entry = region.buckets[(int) (region.tick & WHEEL_MASK)];
+        while (entry != null) {
+            FireEntry next = entry.next;
+            if (entry.expiryTick <= region.tick) {
+                unlink(entry);
+                entry.state = STATE_DUE;
+                region.dueEntries.add(entry);
+            }
+            entry = next;
+        }
+
+        // 2. Extinguish up to what is left of this tick's budget
+        while (budget > 0 && (entry = region.dueEntries.poll()) != null) {
+            // Re-scheduled or released while waiting in the queue
+            if (entry.state != STATE_DUE) {
+                continue;
+            }
+            removeEntry(entry);
+            extinguish(entry);
+            budget--;
+        }
+    }
+
+    private void link(FireEntry entry) {
+        FireEntry[] buckets = entry.region.buckets;
+        int bucket = (int) (entry.expiryTick & WHEEL_MASK);
+        entry.state = STATE_SCHEDULED;
+        entry.prev = null;
+        entry.next = buckets[bucket];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        buckets[bucket] = entry;
+    }
+
+    private void unlink(FireEntry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            entry.region.buckets[(int) (entry.expiryTick & WHEEL_MASK)] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    /**
+     * The timing wheel of one region, with its own tick counter.
+     */
+    private static final class RegionWheel {
+        private final UUID worldId;
+        private final long regionKey;
+        private final FireEntry[] buckets = new FireEntry[WHEEL_SIZE];
+        private final ArrayDeque<FireEntry> dueEntries = new ArrayDeque<>();
+        private RegionScheduler.Task task;
+        private long tick = 0;
+        // Tracked entries in this region
+        private int size = 0;
+
+        private RegionWheel(UUID worldId, long regionKey) {
+            this.worldId = worldId;
+            this.regionKey = regionKey;
+        }
+    }
+
+    /**
+     * A single tracked fire block, linked into its region's wheel bucket.
+     */
+    private static final class FireEntry {
+        private final World world;
+        private final long key;
+        private final RegionWheel region;
+        private int refCount;
+        private long expiryTick;
+        private int state = STATE_SCHEDULED;
+        private int journalSlot = FireJournal.NO_SLOT;
+        // Tracked while the journal was full
+        private boolean unjournaled;
+        private FireEntry prev;
+        private FireEntry next;
+
+        private FireEntry(World world, long key, RegionWheel region) {
+            this.world = world;
+            this.key = key;
+            this.region = region;
+        }
+    }
+
+    /**
+     * Removals deferred in one chunk, as parallel primitive arrays.
+     */
+    private static final class DeferredRemovals {
+        private long[] positions = new long[8];
+        private int[] journalSlots = new int[8];
+        private int size = 0;
+
+        private void add(long position, int journalSlot) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size << 1);
+                journalSlots = Arrays.copyOf(journalSlots, size << 1);
+            }
+            positions[size] = position;
+            journalSlots[size] = journalSlot;
+            size++;
+        }
+    }
+}
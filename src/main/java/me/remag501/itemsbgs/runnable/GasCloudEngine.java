@@ -0,0 +1,321 @@
+package me.remag501.itemsbgs.runnable;
+
+import me.remag501.itemsbgs.api.HazardType;
+import me.remag501.itemsbgs.manager.HazardIndex;
+import me.remag501.itemsbgs.manager.LifecycleOwner;
+import me.remag501.itemsbgs.metrics.LatencyHistogram;
+import me.remag501.itemsbgs.util.BlockKey;
+import me.remag501.itemsbgs.util.LongObjectMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Plugin-side replacement for AreaEffectCloud entities.
+ * Clouds are plain objects kept in a per-world chunk grid. Every cloud grows or shrinks, draws its
+ * particles and expires in a repeating task in the RegionScheduler shard of its center, and once
+ * per reapplication interval a single pass over the online players (this runnable) applies the
+ * effects of the cloud each player stands in, so a cloud costs no entity ticking or entity
+ * metadata at all. Every cloud is also published in the HazardIndex while it lives.
+ * Must only be used from the main thread.
+ */
+public class GasCloudEngine extends BukkitRunnable implements LifecycleOwner {
+
+    // Ticks between two particle bursts of the same cloud
+    private static final int PARTICLE_INTERVAL = 4;
+    // Particles per burst per square block of cloud area
+    private static final double PARTICLES_PER_AREA = 0.6;
+    // How far above or below the cloud center a player is still inside it
+    private static final double CLOUD_HALF_HEIGHT = 1.5;
+
+    private final List<GasCloud> clouds = new ArrayList<>();
+    private final Map<UUID, LongObjectMap<List<GasCloud>>> grid = new HashMap<>();
+    private final int reapplicationInterval;
+    private final LatencyHistogram effectLatency;
+    private final HazardIndex hazardIndex;
+    private final EffectsBus effects;
+    private final RegionScheduler scheduler;
+    private long currentTick = 0;
+    // Spreads the particle bursts of clouds spawned together over the interval
+    private int nextParticlePhase = 0;
+
+    /**
+     * @param reapplicationInterval Ticks between two effect passes over the online players.
+     * @param hazardIndex The index the clouds are published in.
+     * @param effects Sends the cloud particles.
+     * @param scheduler Ticks each cloud in the region of its center.
+     * @param effectLatency Histogram that records the duration of every effect pass.
+     */
+    public GasCloudEngine(int reapplicationInterval, HazardIndex hazardIndex, EffectsBus effects, RegionScheduler scheduler,
+                          LatencyHistogram effectLatency) {
+        this.reapplicationInterval = Math.max(1, reapplicationInterval);
+        this.effects = effects;
+        this.scheduler = scheduler;
+        this.effectLatency = effectLatency;
+        this.hazardIndex = hazardIndex;
+    }
+
+    /**
+     * Spawns a gas cloud.
+     * @param center The center of the cloud.
+     * @param durationTicks How long the cloud lasts after the wait time.
+     * @param radius The initial radius.
+     * @param radiusPerTick How much the radius changes each tick (negative to shrink).
+     * @param waitTicks Ticks before the cloud starts applying effects.
+     * @param particle The particle drawn inside the cloud.
+     * @param effects The effects applied to players inside the cloud.
+     */
+    public void spawnCloud(Location center, int durationTicks, float radius, float radiusPerTick, int waitTicks,
+                           Particle particle, PotionEffect... effects) {
+        // The grid cells are chosen for the largest radius the cloud will ever have
+        float maxRadius = Math.max(radius, radius + radiusPerTick * durationTicks);
+        GasCloud cloud = new GasCloud(center.getWorld(), center.getX(), center.getY(), center.getZ(), radius, maxRadius,
+                radiusPerTick, waitTicks, waitTicks + durationTicks, nextParticlePhase, particle, effects);
+        nextParticlePhase = (nextParticlePhase + 1) % PARTICLE_INTERVAL;
+        cloud.hazard = hazardIndex.addCylinder(HazardType.GAS, cloud.world, cloud.x, cloud.y, cloud.z,
+                maxRadius, CLOUD_HALF_HEIGHT, Long.MAX_VALUE);
+        cloud.hazard.setRadius(radius);
+        cloud.index = clouds.size();
+        clouds.add(cloud);
+        cloud.task = scheduler.runAtFixedRate(cloud.world, center.getBlockX() >> 4, center.getBlockZ() >> 4, 1, 1,
+                () -> tickCloud(cloud));
+        forEachCell(cloud, (cells, key) -> {
+            List<GasCloud> cell = cells.get(key);
+            if (cell == null) {
+                cell = new ArrayList<>(2);
+                cells.put(key, cell);
+            }
+            cell.add(cloud);
+        });
+    }
+
+    /**
+     * @return The number of live clouds.
+     */
+    public int size() {
+        return clouds.size();
+    }
+
+    @Override
+    public void run() {
+        currentTick++;
+
+        // One batched effect pass over the online players
+        if (currentTick % reapplicationInterval == 0 && !clouds.isEmpty()) {
+            long start = System.nanoTime();
+            applyEffects();
+            effectLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Shrinks, draws and expires one cloud. Runs every tick in the region of the cloud's center.
+     */
+    private void tickCloud(GasCloud cloud) {
+        cloud.age++;
+        // Like AreaEffectCloud, the radius only starts changing after the wait time
+        if (cloud.age >= cloud.activeAt) {
+            cloud.radius += cloud.radiusPerTick;
+            cloud.hazard.setRadius(cloud.radius);
+        }
+
+        // Same rule as AreaEffectCloud: gone once it ran out of time or shrank below half a block
+        if (cloud.age >= cloud.expiresAt || cloud.radius < 0.5f) {
+            removeCloud(cloud);
+            return;
+        }
+
+        if (cloud.age % PARTICLE_INTERVAL == cloud.particlePhase) {
+            drawParticles(cloud);
+        }
+    }
+
+    /**
+     * Removes every cloud. Called when the plugin is disabled.
+     */
+    public void clear() {
+        for (GasCloud cloud : clouds) {
+            cloud.task.cancel();
+            hazardIndex.remove(cloud.hazard);
+        }
+        clouds.clear();
+        grid.clear();
+    }
+
+    @Override
+    public String getName() {
+        return "gas clouds";
+    }
+
+    @Override
+    public int getLiveCount() {
+        return clouds.size();
+    }
+
+    /**
+     * Removes the clouds centered in an unloading chunk.
+     */
+    @Override
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+        for (int index = clouds.size() - 1; index >= 0; index--) {
+            GasCloud cloud = clouds.get(index);
+            if (cloud.world == world && (int) Math.floor(cloud.x) >> 4 == chunkX && (int) Math.floor(cloud.z) >> 4 == chunkZ) {
+                removeCloud(cloud);
+            }
+        }
+    }
+
+    @Override
+    public void releaseWorld(World world) {
+        for (int index = clouds.size() - 1; index >= 0; index--) {
+            GasCloud cloud = clouds.get(index);
+            if (cloud.world == world) {
+                removeCloud(cloud);
+            }
+        }
+    }
+
+    @Override
+    public void releaseAll() {
+        clear();
+    }
+
+    private void applyEffects() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            LongObjectMap<List<GasCloud>> cells = grid.get(player.getWorld().getUID());
+            if (cells == null) {
+                continue;
+            }
+
+            Location location = player.getLocation();
+            double x = location.getX();
+            double y = location.getY();
+            double z = location.getZ();
+
+            List<GasCloud> cell = cells.get(BlockKey.chunkOf(location.getBlockX(), location.getBlockZ()));
+            if (cell == null) {
+                continue;
+            }
+
+            for (int index = 0; index < cell.size(); index++) {
+                GasCloud cloud = cell.get(index);
+                if (cloud.contains(x, y, z) && cloud.age >= cloud.activeAt) {
+                    // Overlapping clouds don't stack, one application per pass is enough
+                    for (PotionEffect effect : cloud.effects) {
+                        player.addPotionEffect(effect);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private void drawParticles(GasCloud cloud) {
+        double radius = cloud.radius;
+        int count = Math.max(1, (int) (Math.PI * radius * radius * PARTICLES_PER_AREA));
+        // One burst per cloud, merged with identical bursts of overlapping clouds by the bus
+        effects.spawnParticle(cloud.world, cloud.particle, cloud.x, cloud.y, cloud.z, count, radius / 2, 0.2, radius / 2, 0.01);
+    }
+
+    private void removeCloud(GasCloud cloud) {
+        cloud.task.cancel();
+        // Swap-remove, the order of the cloud list doesn't matter
+        int last = clouds.size() - 1;
+        GasCloud moved = clouds.get(last);
+        clouds.set(cloud.index, moved);
+        moved.index = cloud.index;
+        clouds.remove(last);
+        hazardIndex.remove(cloud.hazard);
+
+        forEachCell(cloud, (cells, key) -> {
+            List<GasCloud> cell = cells.get(key);
+            if (cell != null) {
+                cell.remove(cloud);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        });
+        LongObjectMap<List<GasCloud>> cells = grid.get(cloud.world.getUID());
+        if (cells != null && cells.isEmpty()) {
+            grid.remove(cloud.world.getUID());
+        }
+    }
+
+    /**
+     * Visits every chunk cell covered by the cloud's initial (largest) radius.
+     */
+    private void forEachCell(GasCloud cloud, CellVisitor visitor) {
+        LongObjectMap<List<GasCloud>> cells = grid.computeIfAbsent(cloud.world.getUID(), uid -> new LongObjectMap<>());
+        int minChunkX = (int) Math.floor(cloud.x - cloud.maxRadius) >> 4;
+        int maxChunkX = (int) Math.floor(cloud.x + cloud.maxRadius) >> 4;
+        int minChunkZ = (int) Math.floor(cloud.z - cloud.maxRadius) >> 4;
+        int maxChunkZ = (int) Math.floor(cloud.z + cloud.maxRadius) >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                visitor.visit(cells, BlockKey.packChunk(chunkX, chunkZ));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface CellVisitor {
+        void visit(LongObjectMap<List<GasCloud>> cells, long key);
+    }
+
+    /**
+     * A single live gas cloud.
+     */
+    private static final class GasCloud {
+        private final World world;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final float maxRadius;
+        private final float radiusPerTick;
+        // Ages (ticks since spawn) at which the cloud starts applying effects and expires
+        private final long activeAt;
+        private final long expiresAt;
+        private final int particlePhase;
+        private final Particle particle;
+        private final PotionEffect[] effects;
+        private float radius;
+        private long age = 0;
+        // Position in the cloud list, for the swap-remove
+        private int index;
+        private RegionScheduler.Task task;
+        private HazardIndex.HazardRecord hazard;
+
+        private GasCloud(World world, double x, double y, double z, float radius, float maxRadius, float radiusPerTick,
+                         long activeAt, long expiresAt, int particlePhase, Particle particle, PotionEffect[] effects) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.maxRadius = maxRadius;
+            this.radiusPerTick = radiusPerTick;
+            this.activeAt = activeAt;
+            this.expiresAt = expiresAt;
+            this.particlePhase = particlePhase;
+            this.particle = particle;
+            this.effects = effects;
+            this.radius = radius;
+        }
+
+        private boolean contains(double px, double py, double pz) {
+            double dx = px - x;
+            double dz = pz - z;
+            return Math.abs(py - y) <= CLOUD_HALF_HEIGHT && dx * dx + dz * dz <= radius * radius;
+        }
+    }
+}
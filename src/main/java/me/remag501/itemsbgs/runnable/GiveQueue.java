@@ -0,0 +1,159 @@
+package me.remag501.itemsbgs.runnable;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hands out items to many players at once (e.g., a kit to everyone at round start).
+ * Deliveries are queued per command and worked off a fixed number of players per tick,
+ * so giving to a full server doesn't update every inventory in the same tick.
+ * Every player gets clones of the same prepared stacks, built once from the item templates.
+ * Must only be used from the main thread.
+ */
+public class GiveQueue extends BukkitRunnable {
+
+    private final ArrayDeque<Delivery> deliveries = new ArrayDeque<>();
+    private final int playersPerTick;
+    private int pendingPlayers = 0;
+
+    /**
+     * @param playersPerTick Inventories filled per tick, across all deliveries.
+     */
+    public GiveQueue(int playersPerTick) {
+        this.playersPerTick = Math.max(1, playersPerTick);
+    }
+
+    /**
+     * Queues a delivery.
+     * @param targets The players to give to.
+     * @param stacks The stacks every player receives. Not modified, each player gets clones.
+     * @param description What is given, shown to the players (e.g., "5 molotov").
+     * @param sender Who gave the items, told when the delivery is done.
+     */
+    public void enqueue(Collection<? extends Player> targets, List<ItemStack> stacks, String description, CommandSender sender) {
+        List<UUID> playerIds = new ArrayList<>(targets.size());
+        for (Player target : targets) {
+            playerIds.add(target.getUniqueId());
+        }
+        deliveries.add(new Delivery(new ArrayDeque<>(playerIds), List.copyOf(stacks), description, sender));
+        pendingPlayers += playerIds.size();
+    }
+
+    /**
+     * @return The number of players still waiting for their items.
+     */
+    public int getPendingPlayers() {
+        return pendingPlayers;
+    }
+
+    @Override
+    public void run() {
+        int budget = playersPerTick;
+        while (budget > 0 && !deliveries.isEmpty()) {
+            Delivery delivery = deliveries.peek();
+            budget -= delivery.deliver(budget);
+            if (delivery.isDone()) {
+                deliveries.poll();
+                delivery.report();
+            }
+        }
+    }
+
+    /**
+     * Delivers everything still queued right away. Called when the plugin is disabled.
+     */
+    public void flush() {
+        while (!deliveries.isEmpty()) {
+            Delivery delivery = deliveries.poll();
+            delivery.deliver(Integer.MAX_VALUE);
+            delivery.report();
+        }
+    }
+
+    /**
+     * The same stacks for a list of players.
+     */
+    private final class Delivery {
+        private final ArrayDeque<UUID> remaining;
+        private final List<ItemStack> stacks;
+        private final String description;
+        private final CommandSender sender;
+        private int delivered = 0;
+        private int dropped = 0;
+        private int offline = 0;
+        private final boolean selfOnly;
+
+        private Delivery(ArrayDeque<UUID> remaining, List<ItemStack> stacks, String description, CommandSender sender) {
+            this.remaining = remaining;
+            this.stacks = stacks;
+            this.description = description;
+            this.sender = sender;
+            this.selfOnly = remaining.size() == 1 && sender instanceof Player
+                    && ((Player) sender).getUniqueId().equals(remaining.peek());
+        }
+
+        /**
+         * @return The number of players handled.
+         */
+        private int deliver(int maxPlayers) {
+            int handled = 0;
+            while (handled < maxPlayers && !remaining.isEmpty()) {
+                Player player = Bukkit.getPlayer(remaining.poll());
+                handled++;
+                pendingPlayers--;
+                if (player == null) {
+                    offline++; // Logged off since the command
+                    continue;
+                }
+
+                // addItem changes the stacks it gets, so every player gets their own clones
+                ItemStack[] items = new ItemStack[stacks.size()];
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = stacks.get(i).clone();
+                }
+                Map<Integer, ItemStack> leftover = player.getInventory().addItem(items);
+                for (ItemStack stack : leftover.values()) {
+                    // Full inventory, drop the rest at their feet
+                    player.getWorld().dropItemNaturally(player.getLocation(), stack);
+                    dropped++;
+                }
+
+                delivered++;
+                if (sender instanceof Player) {
+                    player.sendMessage("§6§lITEMS §8» §7You received " + description + " from " + sender.getName() + ".");
+                } else {
+                    player.sendMessage("§6§lITEMS §8» §7You received " + description + ".");
+                }
+            }
+            return handled;
+        }
+
+        private boolean isDone() {
+            return remaining.isEmpty();
+        }
+
+        private void report() {
+            if (selfOnly && dropped == 0) {
+                return; // Giving to yourself, the received message says it all
+            }
+            String message = "§aGave §b" + description + "§a to " + delivered + " player(s).";
+            if (offline > 0) {
+                message += " §7" + offline + " went offline first.";
+            }
+            if (dropped > 0) {
+                message += " §7" + dropped + " stack(s) were dropped (full inventory).";
+            }
+            sender.sendMessage(message);
+        }
+    }
+}
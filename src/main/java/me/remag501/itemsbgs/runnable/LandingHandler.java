@@ -0,0 +1,51 @@
+package me.remag501.itemsbgs.runnable;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Item;
+
+/**
+ * Describes when a tracked projectile counts as "landed" and what happens when it does.
+ * Implementations are stateless and shared by every projectile of the same item type;
+ * the per-projectile state (predicted landing, stationary counter) lives inside the ProjectileEngine.
+ */
+public interface LandingHandler {
+
+    /**
+     * @return Minimum ticks lived before the projectile is checked for landing.
+     */
+    int getActivationTicksThreshold();
+
+    /**
+     * @return Consecutive stationary ticks required before the projectile may land.
+     */
+    int getProcDelayTicks();
+
+    /**
+     * @return Ticks lived after which the projectile lands regardless of its state.
+     */
+    int getFailsafeTicks();
+
+    /**
+     * Used to predict the landing up front: the squared horizontal speed under which a projectile
+     * on the ground counts as resting ({@code Double.POSITIVE_INFINITY} = as soon as it touches the ground).
+     */
+    double getRestSpeedSquared();
+
+    /**
+     * Per-tick stationary check, only used once a landing prediction turned out wrong. A false result resets the stationary counter.
+     * @param item The projectile entity.
+     */
+    boolean isStationary(Item item);
+
+    /**
+     * Final check run once the projectile has been stationary for {@link #getProcDelayTicks()}.
+     * @param item The projectile entity.
+     */
+    boolean hasSettled(Item item);
+
+    /**
+     * Called once when the projectile lands. The engine has already removed the entity.
+     * @param location Where the projectile came to rest.
+     */
+    void onLand(Location location);
+}
@@ -0,0 +1,274 @@
+package me.remag501.itemsbgs.runnable;
+
+import me.remag501.itemsbgs.manager.LifecycleOwner;
+import me.remag501.itemsbgs.metrics.LatencyHistogram;
+import me.remag501.itemsbgs.util.BallisticPredictor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Item;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.Vector;
+
+import java.util.Arrays;
+
+/**
+ * A single repeating task that ticks every in-flight projectile.
+ * Replaces the one-runnable-per-throw trackers: projectiles live in a compact set of
+ * parallel arrays and finished slots are removed by swapping the last slot into their place.
+ *
+ * When a projectile is tracked, its landing is predicted from the launch velocity, and the
+ * entity is left alone until the predicted tick. It is then only checked once: if it has
+ * settled near the predicted spot it lands, otherwise (it was pushed, the terrain changed...)
+ * it falls back to the per-tick landing rules.
+ * Must only be used from the main thread.
+ */
+public class ProjectileEngine extends BukkitRunnable implements LifecycleOwner {
+
+    private static final int INITIAL_CAPACITY = 64;
+    // How far (squared, in blocks) a settled projectile may be from its predicted resting spot
+    private static final double PREDICTION_TOLERANCE_SQUARED = 1.5 * 1.5;
+
+    private Item[] items = new Item[INITIAL_CAPACITY];
+    private LandingHandler[] handlers = new LandingHandler[INITIAL_CAPACITY];
+    private int[] ticksStationary = new int[INITIAL_CAPACITY];
+    // Engine tick at which a slot is looked at next
+    private int[] wakeAt = new int[INITIAL_CAPACITY];
+    // Predicted resting position per slot, or NaN once the slot is polled every tick
+    private double[] restX = new double[INITIAL_CAPACITY];
+    private double[] restY = new double[INITIAL_CAPACITY];
+    private double[] restZ = new double[INITIAL_CAPACITY];
+    private int size = 0;
+    private int tick = 0;
+
+    private final BallisticPredictor predictor;
+    private final RegionScheduler scheduler;
+    private final LatencyHistogram tickLatency;
+    private final double[] restPosition = new double[3];
+
+    /**
+     * @param predictor Landing predictor, or null to check every projectile every tick.
+     * @param scheduler Runs the landing effects in the region they land in.
+     * @param tickLatency Histogram that records the duration of every tick.
+     */
+    public ProjectileEngine(BallisticPredictor predictor, RegionScheduler scheduler, LatencyHistogram tickLatency) {
+        this.predictor = predictor;
+        this.scheduler = scheduler;
+        this.tickLatency = tickLatency;
+    }
+
+    /**
+     * Starts tracking a thrown projectile entity.
+     * @param item The projectile entity.
+     * @param handler The landing rules and effect for this projectile.
+     */
+    public void track(Item item, LandingHandler handler) {
+        if (size == items.length) {
+            int newCapacity = items.length << 1;
+            items = Arrays.copyOf(items, newCapacity);
+            handlers = Arrays.copyOf(handlers, newCapacity);
+            ticksStationary = Arrays.copyOf(ticksStationary, newCapacity);
+            wakeAt = Arrays.copyOf(wakeAt, newCapacity);
+            restX = Arrays.copyOf(restX, newCapacity);
+            restY = Arrays.copyOf(restY, newCapacity);
+            restZ = Arrays.copyOf(restZ, newCapacity);
+        }
+
+        items[size] = item;
+        handlers[size] = handler;
+        ticksStationary[size] = 0;
+        predict(size, item, handler);
+        size++;
+    }
+
+    /**
+     * Schedules the first look at a slot: the predicted landing tick (respecting the handler's
+     * age gate and stationary delay, capped by its failsafe), or the next tick if it can't be predicted.
+     */
+    private void predict(int slot, Item item, LandingHandler handler) {
+        int restTick = BallisticPredictor.UNKNOWN;
+        if (predictor != null) {
+            Location location = item.getLocation();
+            Vector velocity = item.getVelocity();
+            restTick = predictor.predictRestTick(location.getWorld(), location.getX(), location.getY(), location.getZ(),
+                    velocity.getX(), velocity.getY(), velocity.getZ(),
+                    handler.getRestSpeedSquared(), handler.getFailsafeTicks(), restPosition);
+        }
+
+        if (restTick == BallisticPredictor.UNKNOWN) {
+            wakeAt[slot] = tick + 1;
+            restX[slot] = Double.NaN;
+            return;
+        }
+
+        int ticksUntilLanding = Math.max(handler.getActivationTicksThreshold(), restTick + handler.getProcDelayTicks());
+        wakeAt[slot] = tick + Math.min(ticksUntilLanding, handler.getFailsafeTicks() + 1);
+        restX[slot] = restPosition[0];
+        restY[slot] = restPosition[1];
+        restZ[slot] = restPosition[2];
+    }
+
+    /**
+     * @return The number of projectiles currently in flight.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getName() {
+        return "projectiles";
+    }
+
+    @Override
+    public int getLiveCount() {
+        return size;
+    }
+
+    /**
+     * Removes the projectile entities in an unloading chunk without triggering their effect,
+     * so they are never saved with the chunk.
+     */
+    @Override
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+        int slot = 0;
+        while (slot < size) {
+            Location location = items[slot].getLocation();
+            if (location.getWorld() == world && location.getBlockX() >> 4 == chunkX && location.getBlockZ() >> 4 == chunkZ) {
+                items[slot].remove();
+                removeSlot(slot);
+            } else {
+                slot++;
+            }
+        }
+    }
+
+    @Override
+    public void releaseWorld(World world) {
+        int slot = 0;
+        while (slot < size) {
+            if (items[slot].getWorld() == world) {
+                items[slot].remove();
+                removeSlot(slot);
+            } else {
+                slot++;
+            }
+        }
+    }
+
+    @Override
+    public void releaseAll() {
+        clear();
+    }
+
+    @Override
+    public void run() {
+        if (size == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        tick++;
+        int slot = 0;
+        while (slot < size) {
+            // Asleep until its predicted landing
+            if (wakeAt[slot] > tick) {
+                slot++;
+                continue;
+            }
+
+            Item item = items[slot];
+            LandingHandler handler = handlers[slot];
+
+            // The item is no longer valid (removed, despawned, unloaded...)
+            if (!item.isValid()) {
+                removeSlot(slot);
+                continue;
+            }
+
+            boolean landed = Double.isNaN(restX[slot])
+                    ? hasLanded(slot, item, handler)
+                    : verifyPrediction(slot, item, handler);
+            if (!landed) {
+                wakeAt[slot] = tick + 1;
+                slot++;
+                continue;
+            }
+
+            // Free the slot before handing the effect to its region so a failing handler can't proc twice.
+            // The swapped-in projectile has not been ticked yet, so the index stays the same.
+            removeSlot(slot);
+            Location location = item.getLocation();
+            item.remove();
+            scheduler.runAt(location, 0, () -> handler.onLand(location));
+        }
+        tickLatency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Checks a predicted landing once it comes due. On a miss the slot is polled every tick from now on.
+     */
+    private boolean verifyPrediction(int slot, Item item, LandingHandler handler) {
+        Location location = item.getLocation();
+        double dx = location.getX() - restX[slot];
+        double dy = location.getY() - restY[slot];
+        double dz = location.getZ() - restZ[slot];
+        if (dx * dx + dy * dy + dz * dz <= PREDICTION_TOLERANCE_SQUARED && handler.hasSettled(item)) {
+            return true;
+        }
+
+        restX[slot] = Double.NaN;
+        return item.getTicksLived() > handler.getFailsafeTicks();
+    }
+
+    /**
+     * Applies the landing rules (age gate, stationary delay, failsafe) to one slot.
+     */
+    private boolean hasLanded(int slot, Item item, LandingHandler handler) {
+        int ticksLived = item.getTicksLived();
+
+        // Has the item lived long enough to complete its flight arc?
+        if (ticksLived < handler.getActivationTicksThreshold()) {
+            return false;
+        }
+
+        if (handler.isStationary(item)) {
+            ticksStationary[slot]++;
+        } else {
+            // Moving (bouncing, sliding), reset the counter
+            ticksStationary[slot] = 0;
+        }
+
+        if (ticksStationary[slot] >= handler.getProcDelayTicks() && handler.hasSettled(item)) {
+            return true;
+        }
+
+        // FAILSAFE: Force activation if it gets stuck or flies too long
+        return ticksLived > handler.getFailsafeTicks();
+    }
+
+    private void removeSlot(int slot) {
+        int last = --size;
+        items[slot] = items[last];
+        handlers[slot] = handlers[last];
+        ticksStationary[slot] = ticksStationary[last];
+        wakeAt[slot] = wakeAt[last];
+        restX[slot] = restX[last];
+        restY[slot] = restY[last];
+        restZ[slot] = restZ[last];
+        items[last] = null;
+        handlers[last] = null;
+    }
+
+    /**
+     * Removes every in-flight projectile entity without triggering its effect.
+     * Called when the plugin is disabled.
+     */
+    public void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            items[slot].remove();
+            items[slot] = null;
+            handlers[slot] = null;
+        }
+        size = 0;
+    }
+}
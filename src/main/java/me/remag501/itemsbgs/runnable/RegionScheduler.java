@@ -0,0 +1,77 @@
+package me.remag501.itemsbgs.runnable;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Schedules timed work by the part of the world it touches.
+ *
+ * Work is keyed by world and region (a square of {@code 2^REGION_SHIFT} chunks on a side). Tasks of
+ * the same region run in due order, one after the other; tasks of different regions are independent
+ * shards with no ordering between them, and an implementation may run them in parallel. Code that
+ * only touches the world around the location it was scheduled at therefore keeps working on
+ * region-threaded server software. Work that isn't tied to a place goes to the global shard.
+ */
+public interface RegionScheduler {
+
+    // Regions are 8x8 chunks
+    int REGION_SHIFT = 3;
+
+    /**
+     * A scheduled task, to cancel it before it runs.
+     */
+    interface Task {
+        void cancel();
+
+        /**
+         * @return true once cancelled, or once a task that runs once has run.
+         */
+        boolean isCancelled();
+    }
+
+    /**
+     * Runs a task once, in the region of a chunk.
+     * @param delayTicks Ticks to wait. Tasks scheduled while the scheduler is running wait at least one tick.
+     */
+    Task runAt(World world, int chunkX, int chunkZ, long delayTicks, Runnable task);
+
+    /**
+     * Runs a task repeatedly, in the region of a chunk, until cancelled.
+     */
+    Task runAtFixedRate(World world, int chunkX, int chunkZ, long delayTicks, long periodTicks, Runnable task);
+
+    /**
+     * Runs a task once or repeatedly in the global shard, for work that isn't tied to a place.
+     * @param periodTicks Ticks between runs, or 0 to run once.
+     */
+    Task runGlobal(long delayTicks, long periodTicks, Runnable task);
+
+    /**
+     * Runs a task once, in the region of a location.
+     */
+    default Task runAt(Location location, long delayTicks, Runnable task) {
+        return runAt(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4, delayTicks, task);
+    }
+
+    /**
+     * Cancels every task in the regions of a world (e.g., when it unloads).
+     */
+    void cancelWorld(World world);
+
+    /**
+     * Cancels every task, regional and global.
+     */
+    void cancelAll();
+
+    /**
+     * @return The number of tasks waiting to run.
+     */
+    int getPending();
+
+    /**
+     * @return The region key of a chunk, unique within a world.
+     */
+    static long regionKey(int chunkX, int chunkZ) {
+        return ((long) (chunkX >> REGION_SHIFT) << 32) | ((chunkZ >> REGION_SHIFT) & 0xFFFFFFFFL);
+    }
+}
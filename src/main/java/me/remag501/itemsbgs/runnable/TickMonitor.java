@@ -0,0 +1,44 @@
+package me.remag501.itemsbgs.runnable;
+
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Runs every tick to count server ticks and keep a rolling average of the tick time.
+ * The Bukkit API doesn't expose MSPT, so the signal is the interval between two runs:
+ * it stays at 50 ms while the server keeps up and grows as soon as ticks take longer.
+ */
+public class TickMonitor extends BukkitRunnable {
+
+    // Weight of the newest sample in the rolling average (about a one second window)
+    private static final double SMOOTHING = 0.05;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private volatile long currentTick = 0;
+    private long lastRunNanos = 0;
+    private volatile double averageTickMillis = 50.0;
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        if (lastRunNanos != 0) {
+            double sample = (now - lastRunNanos) / NANOS_PER_MILLI;
+            averageTickMillis += (sample - averageTickMillis) * SMOOTHING;
+        }
+        lastRunNanos = now;
+        currentTick++;
+    }
+
+    /**
+     * @return The number of ticks since the plugin was enabled.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return The rolling average tick time in milliseconds (50 ms = 20 TPS).
+     */
+    public double getAverageTickMillis() {
+        return averageTickMillis;
+    }
+}
@@ -0,0 +1,236 @@
+package me.remag501.itemsbgs.runnable;
+
+import me.remag501.itemsbgs.manager.LifecycleOwner;
+import me.remag501.itemsbgs.metrics.LatencyHistogram;
+import me.remag501.itemsbgs.util.BallisticPredictor;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.Vector;
+
+import java.util.Arrays;
+
+/**
+ * Simulates thrown projectiles without spawning any entity.
+ * The server only stores a few numbers per projectile (kept in parallel primitive arrays)
+ * and steps them with the same item physics as the BallisticPredictor; players only see a
+ * particle trail, which is sent as packets and never exists on the server.
+ * The projectiles land through the same LandingHandler callbacks as entity projectiles.
+ * Must only be used from the main thread.
+ */
+public class VirtualProjectileEngine extends BukkitRunnable implements LifecycleOwner {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private World[] worlds = new World[INITIAL_CAPACITY];
+    private LandingHandler[] handlers = new LandingHandler[INITIAL_CAPACITY];
+    private Particle[] trails = new Particle[INITIAL_CAPACITY];
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] z = new double[INITIAL_CAPACITY];
+    private double[] velocityX = new double[INITIAL_CAPACITY];
+    private double[] velocityY = new double[INITIAL_CAPACITY];
+    private double[] velocityZ = new double[INITIAL_CAPACITY];
+    private int[] ticksLived = new int[INITIAL_CAPACITY];
+    private int[] ticksResting = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private final BallisticPredictor physics;
+    private final EffectsBus effects;
+    private final RegionScheduler scheduler;
+    private final LatencyHistogram tickLatency;
+    // Scratch state for one step, so stepping doesn't allocate
+    private final double[] state = new double[6];
+
+    /**
+     * @param physics Steps the projectiles against cached chunk snapshots.
+     * @param effects Sends the particle trails.
+     * @param scheduler Runs the landing effects in the region they land in.
+     * @param tickLatency Histogram that records the duration of every tick.
+     */
+    public VirtualProjectileEngine(BallisticPredictor physics, EffectsBus effects, RegionScheduler scheduler,
+                                   LatencyHistogram tickLatency) {
+        this.physics = physics;
+        this.effects = effects;
+        this.scheduler = scheduler;
+        this.tickLatency = tickLatency;
+    }
+
+    /**
+     * Launches a virtual projectile.
+     * @param from The launch position.
+     * @param velocity The launch velocity, in blocks per tick.
+     * @param handler The landing rules and effect for this projectile.
+     * @param trail The particle shown at the projectile's position every tick.
+     */
+    public void launch(Location from, Vector velocity, LandingHandler handler, Particle trail) {
+        if (size == worlds.length) {
+            int newCapacity = worlds.length << 1;
+            worlds = Arrays.copyOf(worlds, newCapacity);
+            handlers = Arrays.copyOf(handlers, newCapacity);
+            trails = Arrays.copyOf(trails, newCapacity);
+            x = Arrays.copyOf(x, newCapacity);
+            y = Arrays.copyOf(y, newCapacity);
+            z = Arrays.copyOf(z, newCapacity);
+            velocityX = Arrays.copyOf(velocityX, newCapacity);
+            velocityY = Arrays.copyOf(velocityY, newCapacity);
+            velocityZ = Arrays.copyOf(velocityZ, newCapacity);
+            ticksLived = Arrays.copyOf(ticksLived, newCapacity);
+            ticksResting = Arrays.copyOf(ticksResting, newCapacity);
+        }
+
+        worlds[size] = from.getWorld();
+        handlers[size] = handler;
+        trails[size] = trail;
+        x[size] = from.getX();
+        y[size] = from.getY();
+        z[size] = from.getZ();
+        velocityX[size] = velocity.getX();
+        velocityY[size] = velocity.getY();
+        velocityZ[size] = velocity.getZ();
+        ticksLived[size] = 0;
+        ticksResting[size] = 0;
+        size++;
+    }
+
+    /**
+     * @return The number of virtual projectiles currently in flight.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getName() {
+        return "virtual projectiles";
+    }
+
+    @Override
+    public int getLiveCount() {
+        return size;
+    }
+
+    /**
+     * Drops the projectiles flying through an unloading chunk without triggering their effect.
+     */
+    @Override
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+        int slot = 0;
+        while (slot < size) {
+            if (worlds[slot] == world && (int) Math.floor(x[slot]) >> 4 == chunkX && (int) Math.floor(z[slot]) >> 4 == chunkZ) {
+                removeSlot(slot);
+            } else {
+                slot++;
+            }
+        }
+    }
+
+    @Override
+    public void releaseWorld(World world) {
+        int slot = 0;
+        while (slot < size) {
+            if (worlds[slot] == world) {
+                removeSlot(slot);
+            } else {
+                slot++;
+            }
+        }
+    }
+
+    @Override
+    public void releaseAll() {
+        clear();
+    }
+
+    @Override
+    public void run() {
+        if (size == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        int slot = 0;
+        while (slot < size) {
+            LandingHandler handler = handlers[slot];
+            int result = step(slot);
+            int lived = ++ticksLived[slot];
+
+            if (result == BallisticPredictor.RESTING) {
+                ticksResting[slot]++;
+            } else {
+                // Moving (bouncing, sliding), reset the counter
+                ticksResting[slot] = 0;
+            }
+
+            // Same rules as entity projectiles: age gate, stationary delay and the failsafe.
+            // A projectile that runs into an unloaded chunk lands where it is.
+            boolean landed = result == BallisticPredictor.UNLOADED
+                    || (lived >= handler.getActivationTicksThreshold() && ticksResting[slot] >= handler.getProcDelayTicks())
+                    || lived > handler.getFailsafeTicks();
+            if (!landed) {
+                effects.spawnParticle(worlds[slot], trails[slot], x[slot], y[slot], z[slot], 1, 0, 0, 0, 0);
+                slot++;
+                continue;
+            }
+
+            // Free the slot before handing the effect to its region so a failing handler can't proc twice.
+            // The swapped-in projectile has not been ticked yet, so the index stays the same.
+            Location location = new Location(worlds[slot], x[slot], y[slot], z[slot]);
+            removeSlot(slot);
+            scheduler.runAt(location, 0, () -> handler.onLand(location));
+        }
+        tickLatency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Moves one projectile by a tick.
+     */
+    private int step(int slot) {
+        state[0] = x[slot];
+        state[1] = y[slot];
+        state[2] = z[slot];
+        state[3] = velocityX[slot];
+        state[4] = velocityY[slot];
+        state[5] = velocityZ[slot];
+        int result = physics.advance(worlds[slot], state, handlers[slot].getRestSpeedSquared());
+        if (result != BallisticPredictor.UNLOADED) {
+            x[slot] = state[0];
+            y[slot] = state[1];
+            z[slot] = state[2];
+            velocityX[slot] = state[3];
+            velocityY[slot] = state[4];
+            velocityZ[slot] = state[5];
+        }
+        return result;
+    }
+
+    private void removeSlot(int slot) {
+        int last = --size;
+        worlds[slot] = worlds[last];
+        handlers[slot] = handlers[last];
+        trails[slot] = trails[last];
+        x[slot] = x[last];
+        y[slot] = y[last];
+        z[slot] = z[last];
+        velocityX[slot] = velocityX[last];
+        velocityY[slot] = velocityY[last];
+        velocityZ[slot] = velocityZ[last];
+        ticksLived[slot] = ticksLived[last];
+        ticksResting[slot] = ticksResting[last];
+        worlds[last] = null;
+        handlers[last] = null;
+        trails[last] = null;
+    }
+
+    /**
+     * Drops every virtual projectile without triggering its effect.
+     * Called when the plugin is disabled.
+     */
+    public void clear() {
+        Arrays.fill(worlds, 0, size, null);
+        Arrays.fill(handlers, 0, size, null);
+        Arrays.fill(trails, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,232 @@
+package me.remag501.itemsbgs.util;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Predicts where and when a thrown item entity comes to rest by replaying the server's item
+ * physics (gravity, air drag, ground friction) against cached chunk snapshots.
+ * The item is treated as a small box and moved one axis at a time, like the server does,
+ * so the result is close but not exact: callers verify the prediction when it comes due.
+ * Holds no state besides the snapshot cache, so it can be used from several threads at once.
+ */
+public class BallisticPredictor {
+
+    // Item entity physics, per tick
+    public static final double GRAVITY = 0.04;
+    public static final double DRAG = 0.98;
+    // Slipperiness of ordinary blocks; the server multiplies it with the drag on the ground
+    public static final double GROUND_FRICTION = 0.6;
+
+    // Half the width and the height of an item entity's bounding box
+    private static final double HALF_WIDTH = 0.125;
+    private static final double HEIGHT = 0.25;
+    // Longest distance moved per collision check, so fast items can't skip through a block
+    private static final double MAX_SUBSTEP = 0.45;
+
+    public static final int UNKNOWN = -1;
+
+    // Results of a single step
+    public static final int MOVING = 0;
+    public static final int RESTING = 1;
+    public static final int UNLOADED = 2;
+
+    private final ChunkSnapshotCache snapshotCache;
+
+    public BallisticPredictor(ChunkSnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    /**
+     * Steps an item from its launch state until it rests on the ground or floats in a liquid.
+     * @param restSpeedSquared Squared horizontal speed under which a grounded item counts as resting
+     *                         ({@code Double.POSITIVE_INFINITY} = the first ground contact).
+     * @param maxTicks How far ahead to look.
+     * @param restPosition Array of length 3 that receives the resting position (x, y, z).
+     * @return The number of ticks until the item rests, or {@link #UNKNOWN} if it doesn't rest within
+     *         {@code maxTicks} or its path leaves the loaded chunks.
+     */
+    public int predictRestTick(World world, double x, double y, double z, double velocityX, double velocityY, double velocityZ,
+                               double restSpeedSquared, int maxTicks, double[] restPosition) {
+        Probe probe = new Probe(snapshotCache, world);
+        double[] state = {x, y, z, velocityX, velocityY, velocityZ};
+
+        for (int tick = 1; tick <= maxTicks; tick++) {
+            int result = advance(probe, state, restSpeedSquared);
+            if (result == UNLOADED) {
+                return UNKNOWN;
+            }
+            if (result == RESTING) {
+                restPosition[0] = state[0];
+                restPosition[1] = state[1];
+                restPosition[2] = state[2];
+                return tick;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Moves an item by a single tick.
+     * @param state Position and velocity (x, y, z, vx, vy, vz), updated in place.
+     * @param restSpeedSquared See {@link #predictRestTick}.
+     * @return {@link #MOVING}, {@link #RESTING} (on the ground and slow enough, or in a liquid),
+     *         or {@link #UNLOADED} if the item ran into an unloaded chunk (the state is then left partly moved).
+     */
+    public int advance(World world, double[] state, double restSpeedSquared) {
+        return advance(new Probe(snapshotCache, world), state, restSpeedSquared);
+    }
+
+    private static int advance(Probe probe, double[] state, double restSpeedSquared) {
+        double x = state[0];
+        double y = state[1];
+        double z = state[2];
+        double vx = state[3];
+        double vy = state[4] - GRAVITY;
+        double vz = state[5];
+
+        // Move in substeps, one axis at a time (vertical first)
+        boolean onGround = false;
+        int substeps = (int) Math.ceil(Math.max(Math.abs(vx), Math.max(Math.abs(vy), Math.abs(vz))) / MAX_SUBSTEP);
+        for (int step = 0; step < substeps; step++) {
+            double dy = vy / substeps;
+            int blockY = (int) Math.floor(dy < 0 ? y + dy : y + dy + HEIGHT);
+            int result = probe.collides(x, blockY, z);
+            if (result == Probe.UNLOADED) {
+                return UNLOADED;
+            }
+            if (result == Probe.SOLID) {
+                // Land on top of the block, or bump the head on its bottom
+                if (dy < 0) {
+                    y = blockY + 1;
+                    onGround = true;
+                } else {
+                    y = blockY - HEIGHT;
+                }
+                vy = 0;
+            } else {
+                y += dy;
+            }
+
+            double dx = vx / substeps;
+            if (dx != 0) {
+                result = probe.collides(x + dx + Math.copySign(HALF_WIDTH, dx), (int) Math.floor(y), z);
+                if (result == Probe.UNLOADED) {
+                    return UNLOADED;
+                }
+                if (result == Probe.SOLID) {
+                    vx = 0;
+                } else {
+                    x += dx;
+                }
+            }
+
+            double dz = vz / substeps;
+            if (dz != 0) {
+                result = probe.collides(x, (int) Math.floor(y), z + dz + Math.copySign(HALF_WIDTH, dz));
+                if (result == Probe.UNLOADED) {
+                    return UNLOADED;
+                }
+                if (result == Probe.SOLID) {
+                    vz = 0;
+                } else {
+                    z += dz;
+                }
+            }
+        }
+
+        // Even a vertical stand-still counts as being on the ground if the block below is solid
+        if (!onGround && vy == 0) {
+            onGround = probe.collides(x, (int) Math.floor(y - 0.01), z) == Probe.SOLID;
+        }
+
+        double horizontalDrag = onGround ? probe.friction(x, y, z) * DRAG : DRAG;
+        vx *= horizontalDrag;
+        vy *= DRAG;
+        vz *= horizontalDrag;
+
+        state[0] = x;
+        state[1] = y;
+        state[2] = z;
+        state[3] = vx;
+        state[4] = vy;
+        state[5] = vz;
+
+        // Items float in liquids, which counts as resting
+        if (probe.isLiquid(x, y, z)) {
+            return RESTING;
+        }
+        return onGround && vx * vx + vz * vz < restSpeedSquared ? RESTING : MOVING;
+    }
+
+    /**
+     * Block lookups for one prediction (or step), reusing the last chunk snapshot.
+     */
+    private static final class Probe {
+        private static final int EMPTY = 0;
+        private static final int SOLID = 1;
+        private static final int UNLOADED = 2;
+
+        private final ChunkSnapshotCache snapshotCache;
+        private final World world;
+        private final int minHeight;
+        private final int maxHeight;
+        private ChunkSnapshot snapshot;
+        private int snapshotX = Integer.MIN_VALUE;
+        private int snapshotZ = Integer.MIN_VALUE;
+
+        private Probe(ChunkSnapshotCache snapshotCache, World world) {
+            this.snapshotCache = snapshotCache;
+            this.world = world;
+            this.minHeight = world.getMinHeight();
+            this.maxHeight = world.getMaxHeight();
+        }
+
+        private int collides(double x, int y, double z) {
+            Material type = typeAt((int) Math.floor(x), y, (int) Math.floor(z));
+            if (type == null) {
+                return UNLOADED;
+            }
+            return type.isSolid() ? SOLID : EMPTY;
+        }
+
+        private boolean isLiquid(double x, double y, double z) {
+            Material type = typeAt((int) Math.floor(x), (int) Math.floor(y), (int) Math.floor(z));
+            return type == Material.WATER || type == Material.LAVA;
+        }
+
+        private double friction(double x, double y, double z) {
+            Material type = typeAt((int) Math.floor(x), (int) Math.floor(y - 0.01), (int) Math.floor(z));
+            if (type == null) {
+                return GROUND_FRICTION;
+            }
+            return switch (type) {
+                case ICE, PACKED_ICE, FROSTED_ICE -> 0.98;
+                case BLUE_ICE -> 0.989;
+                case SLIME_BLOCK -> 0.8;
+                default -> GROUND_FRICTION;
+            };
+        }
+
+        /**
+         * @return The block type, AIR outside the build height, or null if the chunk isn't loaded.
+         */
+        private Material typeAt(int x, int y, int z) {
+            if (y < minHeight || y >= maxHeight) {
+                return Material.AIR;
+            }
+            int chunkX = x >> 4;
+            int chunkZ = z >> 4;
+            if (snapshot == null || chunkX != snapshotX || chunkZ != snapshotZ) {
+                snapshot = snapshotCache.get(world, chunkX, chunkZ);
+                if (snapshot == null) {
+                    return null;
+                }
+                snapshotX = chunkX;
+                snapshotZ = chunkZ;
+            }
+            return snapshot.getBlockType(x & 15, y, z & 15);
+        }
+    }
+}
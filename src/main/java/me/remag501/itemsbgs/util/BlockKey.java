@@ -0,0 +1,60 @@
+package me.remag501.itemsbgs.util;
+
+/**
+ * Packs block and chunk coordinates into a single long so they can be used as
+ * primitive map keys without allocating a Location or Block.
+ * Block layout matches vanilla: 26 bits X, 26 bits Z, 12 bits Y.
+ */
+public final class BlockKey {
+
+    private static final int XZ_BITS = 26;
+    private static final int Y_BITS = 12;
+    private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+    private static final long Y_MASK = (1L << Y_BITS) - 1;
+    private static final int X_SHIFT = XZ_BITS + Y_BITS;
+    private static final int Z_SHIFT = Y_BITS;
+
+    private BlockKey() {
+    }
+
+    /**
+     * Packs a block position.
+     */
+    public static long pack(int x, int y, int z) {
+        return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Z_SHIFT) | (y & Y_MASK);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> X_SHIFT);
+    }
+
+    public static int unpackY(long key) {
+        return (int) (key << (64 - Y_BITS) >> (64 - Y_BITS));
+    }
+
+    public static int unpackZ(long key) {
+        return (int) (key << (64 - X_SHIFT) >> (64 - XZ_BITS));
+    }
+
+    /**
+     * Packs a chunk position (or any other 2D cell position).
+     */
+    public static long packChunk(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return The packed chunk position of the chunk containing the given block.
+     */
+    public static long chunkOf(int blockX, int blockZ) {
+        return packChunk(blockX >> 4, blockZ >> 4);
+    }
+
+    public static int unpackChunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int unpackChunkZ(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,106 @@
+package me.remag501.itemsbgs.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe cache of immutable chunk snapshots used for block lookups outside the world.
+ * Snapshots are only ever captured on the main thread and only for chunks that are already
+ * loaded, so a lookup never causes a chunk load. Other threads read whatever is cached.
+ */
+public class ChunkSnapshotCache {
+
+    // Once this many chunks are cached, stale snapshots are purged on the next capture
+    private static final int PURGE_THRESHOLD = 512;
+
+    private final Map<UUID, Map<Long, CachedSnapshot>> snapshotsByWorld = new ConcurrentHashMap<>();
+    private final int maxAgeTicks;
+
+    /**
+     * @param maxAgeTicks How long a snapshot is reused before it is captured again.
+     */
+    public ChunkSnapshotCache(int maxAgeTicks) {
+        this.maxAgeTicks = Math.max(1, maxAgeTicks);
+    }
+
+    /**
+     * Gets a snapshot of the given chunk.
+     * On the main thread a missing or stale snapshot is (re)captured if the chunk is loaded.
+     * Off the main thread only cached snapshots are returned, even if stale.
+     * @return The snapshot, or null if the chunk is not loaded (or not cached off-thread).
+     */
+    public ChunkSnapshot get(World world, int chunkX, int chunkZ) {
+        Map<Long, CachedSnapshot> snapshots = snapshotsByWorld.computeIfAbsent(world.getUID(), uid -> new ConcurrentHashMap<>());
+        long key = BlockKey.packChunk(chunkX, chunkZ);
+        CachedSnapshot cached = snapshots.get(key);
+
+        if (!Bukkit.isPrimaryThread()) {
+            return cached == null ? null : cached.snapshot;
+        }
+
+        long now = world.getGameTime();
+        if (cached != null && now - cached.capturedAt < maxAgeTicks) {
+            return cached.snapshot;
+        }
+
+        // Never load a chunk just to look at it
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            snapshots.remove(key);
+            return null;
+        }
+
+        ChunkSnapshot snapshot = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+        if (snapshots.size() >= PURGE_THRESHOLD) {
+            snapshots.values().removeIf(entry -> now - entry.capturedAt >= maxAgeTicks);
+        }
+        snapshots.put(key, new CachedSnapshot(snapshot, now));
+        return snapshot;
+    }
+
+    /**
+     * Drops the cached snapshot of a chunk (e.g., when it unloads).
+     */
+    public void invalidate(World world, int chunkX, int chunkZ) {
+        Map<Long, CachedSnapshot> snapshots = snapshotsByWorld.get(world.getUID());
+        if (snapshots != null) {
+            snapshots.remove(BlockKey.packChunk(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Drops every cached snapshot of a world (e.g., when it unloads).
+     */
+    public void invalidateWorld(World world) {
+        snapshotsByWorld.remove(world.getUID());
+    }
+
+    /**
+     * @return The number of cached snapshots over all worlds.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, CachedSnapshot> snapshots : snapshotsByWorld.values()) {
+            size += snapshots.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        snapshotsByWorld.clear();
+    }
+
+    private static final class CachedSnapshot {
+        private final ChunkSnapshot snapshot;
+        private final long capturedAt;
+
+        private CachedSnapshot(ChunkSnapshot snapshot, long capturedAt) {
+            this.snapshot = snapshot;
+            this.capturedAt = capturedAt;
+        }
+    }
+}
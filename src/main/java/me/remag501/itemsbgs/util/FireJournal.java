@@ -0,0 +1,311 @@
+package me.remag501.itemsbgs.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Write-ahead journal of the temporary fire blocks currently in the world, kept in a fixed-size
+ * memory-mapped file. Recording or clearing a block is a couple of writes into mapped memory
+ * (no system call, no blocking I/O); the OS writes the pages back, so the journal survives a
+ * server crash. On the next start every block still in the journal is rolled back.
+ *
+ * Layout: a header (magic, version, capacity, world count), a table of world UUIDs, then
+ * fixed-size slots of (packed block position, expiry game time, world index + 1).
+ * A slot whose world field is 0 is free; the world field is written last so a half-written
+ * slot is never read back as live.
+ * A block that is extinguished stays recorded until its world is saved: until then the world on
+ * disk may still have the fire, and a crash would bring it back. The blocks read back from the
+ * previous file are kept the same way after they are rolled back. Blocks of worlds that aren't
+ * loaded when the journal is opened are carried over into the new file until their world loads,
+ * so they are rolled back then (or on a later start).
+ * Must only be used from the main thread, except {@link #force()}.
+ */
+public class FireJournal {
+
+    private static final int MAGIC = 0x49424A46; // "IBJF"
+    private static final int VERSION = 1;
+    private static final int MAX_WORLDS = 32;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int WORLD_TABLE_SIZE = MAX_WORLDS * 16;
+    private static final int ENTRIES_OFFSET = HEADER_SIZE + WORLD_TABLE_SIZE;
+    private static final int ENTRY_SIZE = 20;
+    private static final int WORLD_FIELD = 16;
+
+    public static final int NO_SLOT = -1;
+
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final Map<UUID, Integer> worldIndexes = new HashMap<>();
+    // Blocks read back from the previous file whose world isn't loaded yet
+    private final Map<UUID, List<Entry>> carried = new HashMap<>();
+    // Slots of extinguished blocks, freed once their world is saved
+    private final Map<UUID, SlotList> clearedUntilSave = new HashMap<>();
+    // Free slots as a stack, lowest slots on top so the live part of the file stays small
+    private final int[] freeSlots;
+    private int freeCount;
+    private int worldCount = 0;
+    private int rejected = 0;
+
+    private FireJournal(MappedByteBuffer buffer, int capacity) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.freeSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        this.freeCount = capacity;
+    }
+
+    /**
+     * Creates (or overwrites) an empty journal file. Read the old file with {@link #readLive(File)} first.
+     * @param capacity Maximum number of fire blocks journaled at once.
+     */
+    public static FireJournal create(File file, int capacity) throws IOException {
+        int slots = Math.max(1, capacity);
+        long size = ENTRIES_OFFSET + (long) slots * ENTRY_SIZE;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, slots);
+            buffer.putInt(12, 0);
+            buffer.force();
+            return new FireJournal(buffer, slots);
+        }
+    }
+
+    /**
+     * Reads the blocks still recorded in a journal file (e.g., left behind by a crash).
+     * @return The live entries, empty if the file doesn't exist or isn't a journal.
+     */
+    public static List<Entry> readLive(File file) throws IOException {
+        List<Entry> live = new ArrayList<>();
+        if (!file.isFile() || file.length() < ENTRIES_OFFSET) {
+            return live;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                return live;
+            }
+
+            int worlds = Math.min(buffer.getInt(12), MAX_WORLDS);
+            UUID[] worldIds = new UUID[worlds];
+            for (int i = 0; i < worlds; i++) {
+                int offset = HEADER_SIZE + i * 16;
+                worldIds[i] = new UUID(buffer.getLong(offset), buffer.getLong(offset + 8));
+            }
+
+            long slots = Math.min(buffer.getInt(8), (channel.size() - ENTRIES_OFFSET) / ENTRY_SIZE);
+            for (int slot = 0; slot < slots; slot++) {
+                int offset = ENTRIES_OFFSET + slot * ENTRY_SIZE;
+                int world = buffer.getInt(offset + WORLD_FIELD);
+                if (world > 0 && world <= worlds) {
+                    live.add(new Entry(worldIds[world - 1], buffer.getLong(offset), buffer.getLong(offset + 8)));
+                }
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Records a fire block.
+     * @param expiry Game time at which the fire is extinguished.
+     * @return The slot to update or clear later, or {@link #NO_SLOT} if the journal is full
+     *         (counted by {@link #getRejected()}).
+     */
+    public int record(UUID world, long blockKey, long expiry) {
+        int worldIndex = worldIndex(world);
+        if (freeCount == 0 || worldIndex < 0) {
+            rejected++;
+            return NO_SLOT;
+        }
+
+        int slot = freeSlots[--freeCount];
+        int offset = ENTRIES_OFFSET + slot * ENTRY_SIZE;
+        buffer.putLong(offset, blockKey);
+        buffer.putLong(offset + 8, expiry);
+        buffer.putInt(offset + WORLD_FIELD, worldIndex + 1);
+        return slot;
+    }
+
+    /**
+     * Keeps a block read back from the previous file, for a world that isn't loaded yet.
+     * It stays recorded (also across restarts) until its world loads and is then saved, see {@link #takeCarried(UUID)}.
+     */
+    public void carry(Entry entry) {
+        entry.slot = record(entry.world, entry.blockKey, entry.expiry);
+        if (entry.slot != NO_SLOT) {
+            carried.computeIfAbsent(entry.world, world -> new ArrayList<>()).add(entry);
+        }
+    }
+
+    /**
+     * Hands back the carried blocks of a world (it loaded) to be rolled back. They stay recorded
+     * until the world is next saved.
+     * @return The carried blocks, empty if none.
+     */
+    public List<Entry> takeCarried(UUID world) {
+        List<Entry> entries = carried.remove(world);
+        if (entries == null) {
+            return List.of();
+        }
+        for (Entry entry : entries) {
+            clearOnSave(entry.world, entry.slot);
+            entry.slot = NO_SLOT;
+        }
+        return entries;
+    }
+
+    /**
+     * Keeps a block read back from the previous file, for a loaded world it was just rolled back in.
+     * It stays recorded until the world is next saved.
+     */
+    public void keepUntilSaved(Entry entry) {
+        clearOnSave(entry.world, record(entry.world, entry.blockKey, entry.expiry));
+    }
+
+    /**
+     * Moves the expiry of a recorded block.
+     */
+    public void updateExpiry(int slot, long expiry) {
+        if (slot != NO_SLOT) {
+            buffer.putLong(ENTRIES_OFFSET + slot * ENTRY_SIZE + 8, expiry);
+        }
+    }
+
+    /**
+     * Forgets a block right away (e.g., it never made it into the world).
+     */
+    public void clear(int slot) {
+        if (slot != NO_SLOT) {
+            buffer.putInt(ENTRIES_OFFSET + slot * ENTRY_SIZE + WORLD_FIELD, 0);
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    /**
+     * Forgets an extinguished block once its world has been saved, see {@link #worldSaved(UUID)}.
+     */
+    public void clearOnSave(UUID world, int slot) {
+        if (slot != NO_SLOT) {
+            clearedUntilSave.computeIfAbsent(world, uid -> new SlotList()).add(slot);
+        }
+    }
+
+    /**
+     * Frees the slots of the blocks extinguished in a world before it was saved.
+     */
+    public void worldSaved(UUID world) {
+        SlotList slots = clearedUntilSave.remove(world);
+        if (slots == null) {
+            return;
+        }
+        for (int i = 0; i < slots.size; i++) {
+            clear(slots.slots[i]);
+        }
+    }
+
+    /**
+     * @return The number of blocks currently recorded.
+     */
+    public int size() {
+        return capacity - freeCount;
+    }
+
+    /**
+     * @return The number of blocks that couldn't be recorded because the journal was full, since it was opened.
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Writes the mapped pages to disk. Only needed to survive a power loss, not a crash,
+     * so it can run rarely and off the main thread.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    private int worldIndex(UUID world) {
+        Integer index = worldIndexes.get(world);
+        if (index != null) {
+            return index;
+        }
+        if (worldCount == MAX_WORLDS) {
+            return -1;
+        }
+
+        int offset = HEADER_SIZE + worldCount * 16;
+        buffer.putLong(offset, world.getMostSignificantBits());
+        buffer.putLong(offset + 8, world.getLeastSignificantBits());
+        worldIndexes.put(world, worldCount);
+        buffer.putInt(12, ++worldCount);
+        return worldCount - 1;
+    }
+
+    /**
+     * A growable list of slots.
+     */
+    private static final class SlotList {
+        private int[] slots = new int[16];
+        private int size = 0;
+
+        private void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size << 1);
+            }
+            slots[size++] = slot;
+        }
+    }
+
+    /**
+     * A block read back from a journal file.
+     */
+    public static final class Entry {
+        private final UUID world;
+        private final long blockKey;
+        private final long expiry;
+        // Slot in the current file while carried
+        private int slot = NO_SLOT;
+
+        private Entry(UUID world, long blockKey, long expiry) {
+            this.world = world;
+            this.blockKey = blockKey;
+            this.expiry = expiry;
+        }
+
+        public UUID getWorld() {
+            return world;
+        }
+
+        /**
+         * @return The block position, packed with {@link BlockKey#pack(int, int, int)}.
+         */
+        public long getBlockKey() {
+            return blockKey;
+        }
+
+        /**
+         * @return The game time at which the block was due to expire.
+         */
+        public long getExpiry() {
+            return expiry;
+        }
+    }
+}
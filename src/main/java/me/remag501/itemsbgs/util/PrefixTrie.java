@@ -0,0 +1,151 @@
+package me.remag501.itemsbgs.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prefix tree of words for tab completion, matched case-insensitively.
+ * Every node keeps the immutable, sorted list of the words below it once it has been asked for,
+ * so completing a prefix is a walk of its length and returns a shared list without copying.
+ * Adding or removing a word only drops the cached lists on that word's path.
+ * Not thread-safe.
+ */
+public final class PrefixTrie {
+
+    private final Node root = new Node();
+    private int size = 0;
+
+    /**
+     * Adds a word. Its original case is kept in the suggestions.
+     * @return false if a word with the same (case-insensitive) spelling is already present.
+     */
+    public boolean add(String word) {
+        String key = word.toLowerCase(Locale.ROOT);
+        Node node = root;
+        node.completions = null;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childFor(key.charAt(i), true);
+            node.completions = null;
+        }
+        if (node.word != null) {
+            return false;
+        }
+        node.word = word;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a word (any case).
+     * @return false if the word was not present.
+     */
+    public boolean remove(String word) {
+        String key = word.toLowerCase(Locale.ROOT);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.childFor(key.charAt(i), false);
+        }
+        if (node == null || node.word == null) {
+            return false;
+        }
+
+        // Drop the cached lists on the path. Emptied nodes are kept, names tend to come back.
+        node.word = null;
+        node = root;
+        node.completions = null;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childFor(key.charAt(i), false);
+            node.completions = null;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every word.
+     */
+    public void clear() {
+        root.keys = Node.NO_KEYS;
+        root.children = Node.NO_CHILDREN;
+        root.word = null;
+        root.completions = null;
+        size = 0;
+    }
+
+    /**
+     * @param prefix Typed prefix, any case.
+     * @return The words starting with the prefix, sorted. Immutable and shared, don't modify.
+     */
+    public List<String> complete(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.childFor(Character.toLowerCase(prefix.charAt(i)), false);
+        }
+        if (node == null) {
+            return List.of();
+        }
+        if (node.completions == null) {
+            List<String> words = new ArrayList<>();
+            node.collect(words);
+            node.completions = List.copyOf(words);
+        }
+        return node.completions;
+    }
+
+    /**
+     * @return The number of words.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Sorted by character, so collecting walks the words in order
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private String word;
+        private List<String> completions;
+
+        private Node childFor(char key, boolean create) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            if (!create) {
+                return null;
+            }
+
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            Node child = new Node();
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void collect(List<String> words) {
+            if (word != null) {
+                words.add(word);
+            }
+            for (Node child : children) {
+                if (child.completions != null) {
+                    words.addAll(child.completions); // Already built, reuse it
+                } else {
+                    child.collect(words);
+                }
+            }
+        }
+    }
+}
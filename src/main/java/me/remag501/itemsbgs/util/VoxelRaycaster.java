@@ -0,0 +1,163 @@
+package me.remag501.itemsbgs.util;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.util.Vector;
+
+import java.util.Set;
+
+/**
+ * Grid traversal (DDA) raycaster that reads blocks from cached chunk snapshots.
+ * Unlike LivingEntity#getTargetBlock it never loads a chunk: the ray simply stops
+ * when it reaches one that isn't loaded. The raycaster itself holds no state, so
+ * it can be used from several threads at once.
+ */
+public class VoxelRaycaster {
+
+    private final ChunkSnapshotCache snapshotCache;
+
+    public VoxelRaycaster(ChunkSnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    private static final int RESULT_MISS = 0;
+    private static final int RESULT_HIT = 1;
+    private static final int RESULT_UNLOADED = 2;
+
+    /**
+     * Finds the first non-passable block along a ray.
+     * Like getTargetBlock, the last block in range is returned if nothing is hit.
+     * @param origin The ray origin (e.g., the player's eye location).
+     * @param direction The ray direction, does not need to be normalized.
+     * @param maxDistance The maximum distance in blocks.
+     * @param passable Materials the ray passes through.
+     * @return The location of the hit block (its corner), or null if the ray reached an unloaded chunk.
+     */
+    public Location cast(Location origin, Vector direction, int maxDistance, Set<Material> passable) {
+        double length = direction.length();
+        if (length == 0) {
+            return null;
+        }
+
+        int[] cell = new int[3];
+        World world = origin.getWorld();
+        int result = traverse(world, origin.getX(), origin.getY(), origin.getZ(),
+                direction.getX() / length, direction.getY() / length, direction.getZ() / length,
+                maxDistance, passable, cell);
+        if (result == RESULT_UNLOADED) {
+            return null;
+        }
+        return new Location(world, cell[0], cell[1], cell[2]);
+    }
+
+    /**
+     * Checks whether any non-passable block lies between two points.
+     * A segment that crosses an unloaded chunk counts as obstructed.
+     * @param cell Scratch array of length 3, so repeated checks don't allocate.
+     */
+    public boolean isObstructed(World world, double fromX, double fromY, double fromZ,
+                                double toX, double toY, double toZ, Set<Material> passable, int[] cell) {
+        double dirX = toX - fromX;
+        double dirY = toY - fromY;
+        double dirZ = toZ - fromZ;
+        double length = Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        if (length == 0) {
+            return false;
+        }
+
+        return traverse(world, fromX, fromY, fromZ, dirX / length, dirY / length, dirZ / length,
+                length, passable, cell) != RESULT_MISS;
+    }
+
+    /**
+     * Walks the voxels along a normalized ray. The last visited (or hit) voxel is written to {@code cell}.
+     */
+    private int traverse(World world, double originX, double originY, double originZ,
+                         double dirX, double dirY, double dirZ, double maxDistance, Set<Material> passable, int[] cell) {
+        int minHeight = world.getMinHeight();
+        int maxHeight = world.getMaxHeight();
+
+        int x = (int) Math.floor(originX);
+        int y = (int) Math.floor(originY);
+        int z = (int) Math.floor(originZ);
+
+        int stepX = (int) Math.signum(dirX);
+        int stepY = (int) Math.signum(dirY);
+        int stepZ = (int) Math.signum(dirZ);
+
+        // Distance along the ray between two grid lines on each axis
+        double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dirX);
+        double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dirY);
+        double deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dirZ);
+
+        // Distance along the ray to the first grid line on each axis
+        double nextX = boundaryDistance(originX, x, stepX, deltaX);
+        double nextY = boundaryDistance(originY, y, stepY, deltaY);
+        double nextZ = boundaryDistance(originZ, z, stepZ, deltaZ);
+
+        ChunkSnapshot snapshot = null;
+        int snapshotX = Integer.MIN_VALUE;
+        int snapshotZ = Integer.MIN_VALUE;
+        int result = RESULT_MISS;
+
+        while (true) {
+            // Outside the build height counts as air
+            if (y >= minHeight && y < maxHeight) {
+                int chunkX = x >> 4;
+                int chunkZ = z >> 4;
+                if (snapshot == null || chunkX != snapshotX || chunkZ != snapshotZ) {
+                    snapshot = snapshotCache.get(world, chunkX, chunkZ);
+                    if (snapshot == null) {
+                        result = RESULT_UNLOADED;
+                        break;
+                    }
+                    snapshotX = chunkX;
+                    snapshotZ = chunkZ;
+                }
+
+                if (!passable.contains(snapshot.getBlockType(x & 15, y, z & 15))) {
+                    result = RESULT_HIT;
+                    break;
+                }
+            }
+
+            // Step into the next voxel along the closest boundary
+            if (nextX < nextY && nextX < nextZ) {
+                if (nextX > maxDistance) {
+                    break;
+                }
+                x += stepX;
+                nextX += deltaX;
+            } else if (nextY < nextZ) {
+                if (nextY > maxDistance) {
+                    break;
+                }
+                y += stepY;
+                nextY += deltaY;
+            } else {
+                if (nextZ > maxDistance) {
+                    break;
+                }
+                z += stepZ;
+                nextZ += deltaZ;
+            }
+        }
+
+        cell[0] = x;
+        cell[1] = y;
+        cell[2] = z;
+        return result;
+    }
+
+    private static double boundaryDistance(double origin, int cell, int step, double delta) {
+        if (step > 0) {
+            return (cell + 1 - origin) * delta;
+        }
+        if (step < 0) {
+            return (origin - cell) * delta;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}